@@ -0,0 +1,84 @@
+package org.example.benchmarks;
+
+import org.example.loader.Link;
+import org.example.loader.LoaderSettings;
+import org.example.loader.frontier.CrawlPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * addTask until the batch is drained by one dispatch worker, with a loader
+ * that answers every task in place, for each frontier layout.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    @Param({"false", "true"})
+    public boolean hostFairness;
+
+    @Param({"PRIORITY", "BREADTH_FIRST"})
+    public CrawlPolicy crawlPolicy;
+
+    private NoopLoader loader;
+    private Link[] links;
+
+    @Setup
+    public void setUp() {
+        loader = new NoopLoader(new LoaderSettings.Builder()
+              .maxConcurrentRequests(BATCH)
+              .adaptiveRate(false)
+              .circuitBreaker(false)
+              .metricsInterval(0)
+              .hostFairness(hostFairness)
+              .crawlPolicy(crawlPolicy)
+              .build());
+        // keeps the worker alive between batches
+        loader.setIdleListener(() -> {
+        });
+        loader.startUp();
+        links = new Link[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            links[i] = new Link.Builder("https://host" + (i % 16) + ".example.org/films/" + i)
+                  .priority(i % 5)
+                  .depth(i % 3)
+                  .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        loader.shutDown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long addAndDrain() {
+        for (Link link : links) {
+            loader.addTask(link);
+        }
+        while (loader.inFlight() > 0) {
+            Thread.onSpinWait();
+        }
+        return loader.inFlight();
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.loader.Link;
+import org.example.loader.events.LoaderTask;
+import org.example.loader.frontier.CrawlPolicy;
+import org.example.loader.frontier.Frontier;
+import org.example.loader.frontier.HostFairFrontier;
+import org.example.loader.frontier.InMemoryFrontier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a queue with {@code size} tasks and drains it again. LEGACY is the
+ * PriorityBlockingQueue ordered by hash code that the loader used before the
+ * frontier was introduced.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FrontierBenchmark {
+
+    public enum Queue {
+        LEGACY, PRIORITY, HOST_FAIR
+    }
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"LEGACY", "PRIORITY", "HOST_FAIR"})
+    public Queue queue;
+
+    private LoaderTask[] tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = new LoaderTask[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new LoaderTask(new Link.Builder("https://host" + (i % 64) + ".example.org/page/" + i)
+                  .priority(i % 3)
+                  .build());
+        }
+    }
+
+    @Benchmark
+    public long offerAndPoll() throws InterruptedException {
+        if (queue == Queue.LEGACY) {
+            PriorityBlockingQueue<LoaderTask> legacy = new PriorityBlockingQueue<>(11, Comparator.comparingInt(Object::hashCode));
+            for (LoaderTask task : tasks) {
+                legacy.offer(task);
+            }
+            long polled = 0;
+            while (legacy.poll() != null) {
+                polled++;
+            }
+            return polled;
+        }
+
+        Frontier frontier = queue == Queue.PRIORITY
+              ? new InMemoryFrontier(CrawlPolicy.PRIORITY)
+              : new HostFairFrontier(CrawlPolicy.PRIORITY);
+        for (LoaderTask task : tasks) {
+            frontier.offer(task);
+        }
+        long polled = 0;
+        while (frontier.poll() != null) {
+            polled++;
+        }
+        return polled;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.benchmarks;
+
+import org.example.loader.Link;
+import org.example.loader.LinkKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Link identity. {@code hashCodeOf} and the equals benchmarks hit the cached
+ * {@link LinkKey}, {@code legacyHashCode} repeats what hashCode computed on
+ * every call before, {@code keyFromScratch} is the one-off cost of a key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinkBenchmark {
+
+    @Param({"0", "4"})
+    public int parameters;
+
+    private Link link;
+    private Link same;
+    private Link other;
+
+    @Setup
+    public void setUp() {
+        link = create("https://api.example.org/v1/films/12345");
+        same = create("https://api.example.org/v1/films/12345");
+        other = create("https://api.example.org/v1/films/12346");
+    }
+
+    private Link create(String url) {
+        Link created = new Link.Builder(url).build();
+        for (int i = 0; i < parameters; i++) {
+            created.addParameter("param" + i, "value " + i);
+        }
+        return created;
+    }
+
+    @Benchmark
+    public String buildUrl() {
+        return link.buildUrl();
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return link.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return link.equals(same);
+    }
+
+    @Benchmark
+    public boolean equalsOther() {
+        return link.equals(other);
+    }
+
+    @Benchmark
+    public int legacyHashCode() {
+        int result = link.getUrl().hashCode();
+        result = 31 * result + link.getParameters().hashCode();
+        result = 31 * result + (link.getBody() != null ? link.getBody().hashCode() : 0);
+        return 31 * result + link.getMethod().hashCode();
+    }
+
+    @Benchmark
+    public LinkKey keyFromScratch() {
+        link.setUrl(link.getUrl());
+        return link.key();
+    }
+
+    @Benchmark
+    public String normalizedKey() {
+        return link.normalizedKey();
+    }
+
+    @Benchmark
+    public String host() {
+        return link.getHost();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.benchmarks;
+
+import org.example.loader.HttpClientLoader;
+import org.example.loader.Link;
+import org.example.loader.Loader;
+import org.example.loader.LoaderSettings;
+import org.example.loader.events.AbstractDataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests per second of a whole crawl against a local server: a fresh loader
+ * per invocation fetches a batch of links, parses every body and shuts down.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoaderThroughputBenchmark {
+
+    private static final int REQUESTS = 200;
+
+    public enum Client {
+        LOADER, HTTP_CLIENT
+    }
+
+    @Param({"LOADER", "HTTP_CLIENT"})
+    public Client client;
+
+    @Param({"8", "32"})
+    public int concurrency;
+
+    @Param({"10", "200"})
+    public int items;
+
+    private LocalServer server;
+    private LoaderSettings settings;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LocalServer(8, Payloads.jsonList(items));
+        settings = new LoaderSettings.Builder()
+              .limitRequest(concurrency)
+              .maxConcurrentRequests(concurrency)
+              .maxConnectionsPerHost(concurrency)
+              .adaptiveRate(false)
+              .checkpointInterval(0)
+              .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int crawl() throws InterruptedException {
+        AbstractDataLoader loader = client == Client.LOADER ? new Loader(settings) : new HttpClientLoader(settings);
+        AtomicInteger parsed = new AtomicInteger();
+        for (int i = 0; i < REQUESTS; i++) {
+            loader.addTask(new Link.Builder(server.url("/films/" + i)).build())
+                  .onSuccess(event -> parsed.addAndGet(event.json().size()));
+        }
+        loader.startUp();
+        if (!loader.awaitIdle(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(loader.inFlight() + " requests did not finish");
+        }
+        loader.shutDown();
+        return parsed.get();
+    }
+}
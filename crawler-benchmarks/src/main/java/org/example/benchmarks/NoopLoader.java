@@ -0,0 +1,23 @@
+package org.example.benchmarks;
+
+import org.example.loader.LoaderSettings;
+import org.example.loader.events.AbstractDataLoader;
+import org.example.loader.events.LoaderTask;
+import org.example.loader.events.SuccessEvent;
+
+/**
+ * Completes every task right away, so only the queueing and dispatch paths
+ * of {@link AbstractDataLoader} are measured.
+ */
+class NoopLoader extends AbstractDataLoader {
+
+    NoopLoader(LoaderSettings settings) {
+        super(settings);
+    }
+
+    @Override
+    public boolean runTask(LoaderTask loaderTask) {
+        complete(loaderTask, new SuccessEvent(this, loaderTask.getLink(), "{}"));
+        return true;
+    }
+}
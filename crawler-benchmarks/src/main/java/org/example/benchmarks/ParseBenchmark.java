@@ -0,0 +1,108 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.loader.Link;
+import org.example.loader.body.ResponseBody;
+import org.example.loader.events.SuccessEvent;
+import org.example.util.JsonUtils;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON and HTML access on events. Every invocation builds a new event, the
+ * way a loader does for each response, so nothing is served from the memoized
+ * tree of a previous call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+    private static final Link LINK = new Link.Builder("https://example.org/films").build();
+    private static final Map<String, List<String>> JSON_HEADERS = Map.of("Content-Type", List.of("application/json"));
+    private static final Map<String, List<String>> HTML_HEADERS = Map.of("Content-Type", List.of("text/html; charset=utf-8"));
+
+    @Param({"10", "200"})
+    public int items;
+
+    private String json;
+    private byte[] jsonBytes;
+    private byte[] htmlBytes;
+    private String middlePointer;
+
+    @Setup
+    public void setUp() {
+        json = Payloads.jsonList(items);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        htmlBytes = Payloads.htmlPage(items).getBytes(StandardCharsets.UTF_8);
+        middlePointer = "/" + (items / 2) + "/title";
+    }
+
+    private SuccessEvent jsonEvent() {
+        return new SuccessEvent(null, LINK, 200, JSON_HEADERS, ResponseBody.of(jsonBytes, "application/json"));
+    }
+
+    @Benchmark
+    public JsonNode parseJsonString() {
+        return JsonUtils.parseJson(json);
+    }
+
+    @Benchmark
+    public JsonNode eventJson() {
+        return jsonEvent().json();
+    }
+
+    @Benchmark
+    public JsonNode eventJsonPointer() {
+        return jsonEvent().json(middlePointer);
+    }
+
+    @Benchmark
+    public void eventForEachJson(Blackhole blackhole) {
+        jsonEvent().forEachJson("", node -> blackhole.consume(node.get("id")));
+    }
+
+    @Benchmark
+    public String eventContent() {
+        return jsonEvent().content();
+    }
+
+    private SuccessEvent htmlEvent() {
+        return new SuccessEvent(null, LINK, 200, HTML_HEADERS, ResponseBody.of(htmlBytes, "text/html; charset=utf-8"));
+    }
+
+    @Benchmark
+    public Document eventHtml() {
+        return htmlEvent().html();
+    }
+
+    @Benchmark
+    public int eventHtmlLinks() {
+        return htmlEvent().html().select("a[href]").size();
+    }
+
+    // scans the start tags instead of building the DOM
+    @Benchmark
+    public List<String> eventLinks() {
+        return htmlEvent().links();
+    }
+}
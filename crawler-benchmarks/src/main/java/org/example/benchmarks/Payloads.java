@@ -0,0 +1,61 @@
+package org.example.benchmarks;
+
+import java.util.Random;
+
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * A list of objects shaped like the film API responses the crawlers read.
+     */
+    static String jsonList(int count) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(count * 200).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"userId\":").append(random.nextInt(10))
+                  .append(",\"id\":").append(i)
+                  .append(",\"title\":\"").append(words(random, 6))
+                  .append("\",\"completed\":").append(random.nextBoolean())
+                  .append(",\"body\":\"").append(words(random, 25))
+                  .append("\",\"tags\":[\"").append(words(random, 1)).append("\",\"").append(words(random, 1)).append("\"]}");
+        }
+        return json.append(']').toString();
+    }
+
+    static String htmlPage(int links) {
+        Random random = new Random(7);
+        StringBuilder html = new StringBuilder(links * 300)
+              .append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>")
+              .append(words(random, 4))
+              .append("</title><link rel=\"stylesheet\" href=\"/main.css\"></head><body><nav><ul>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<li><a href=\"/section/").append(i).append("\">").append(words(random, 2)).append("</a></li>");
+        }
+        html.append("</ul></nav><main>");
+        for (int i = 0; i < links; i++) {
+            html.append("<article class=\"film\" data-id=\"").append(i).append("\"><h2><a href=\"/films/").append(i)
+                  .append("\">").append(words(random, 3)).append("</a></h2><p>").append(words(random, 40))
+                  .append("</p><span class=\"rating\">").append(random.nextInt(100) / 10.0).append("</span></article>");
+        }
+        return html.append("</main><footer>").append(words(random, 10)).append("</footer></body></html>").toString();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            int length = 3 + random.nextInt(7);
+            for (int c = 0; c < length; c++) {
+                words.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return words.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.loader.LoaderSettings;
+import org.example.loader.filter.SeenFilterType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * isSuitable from several threads on one loader. Every iteration starts with
+ * an empty filter and the threads walk disjoint slices of a fixed key space,
+ * so an iteration begins with new keys and ends with repeated ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class SeenFilterBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"EXACT", "BLOOM"})
+        public SeenFilterType filter;
+
+        String[] keys;
+        NoopLoader loader;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void keys() {
+            keys = new String[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                keys[i] = "GET https://host" + (i % 32) + ".example.org/films/" + i + "?page=" + (i % 7);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            loader = new NoopLoader(new LoaderSettings.Builder()
+                  .seenFilterType(filter)
+                  .expectedInsertions(KEYS)
+                  .build());
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            loader.shutDown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void setUp(Shared shared) {
+            next = (shared.threads.getAndIncrement() * (KEYS / 4)) & (KEYS - 1);
+        }
+    }
+
+    @Benchmark
+    public boolean isSuitable(Shared shared, Cursor cursor) {
+        String key = shared.keys[cursor.next];
+        cursor.next = (cursor.next + 1) & (KEYS - 1);
+        return shared.loader.isSuitable(key);
+    }
+}
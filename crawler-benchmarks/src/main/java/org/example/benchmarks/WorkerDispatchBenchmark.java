@@ -0,0 +1,78 @@
+package org.example.benchmarks;
+
+import org.example.loader.Link;
+import org.example.loader.LoaderSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch of tasks drained by a growing number of dispatch workers, see
+ * {@link DispatchBenchmark} for the frontier layouts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkerDispatchBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    @Param({"1", "2", "4"})
+    public int workers;
+
+    private NoopLoader loader;
+    private Link[] links;
+
+    @Setup
+    public void setUp() {
+        loader = new NoopLoader(new LoaderSettings.Builder()
+              .dispatchWorkers(workers)
+              .maxConcurrentRequests(BATCH)
+              .adaptiveRate(false)
+              .circuitBreaker(false)
+              .metricsInterval(0)
+              .build());
+        // keeps the workers alive between batches
+        loader.setIdleListener(() -> {
+        });
+        loader.startUp();
+        links = new Link[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            links[i] = new Link.Builder("https://host" + (i % 16) + ".example.org/films/" + i)
+                  .priority(i % 5)
+                  .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        loader.shutDown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long addAndDrain() {
+        for (Link link : links) {
+            loader.addTask(link);
+        }
+        while (loader.inFlight() > 0) {
+            Thread.onSpinWait();
+        }
+        return loader.inFlight();
+    }
+}
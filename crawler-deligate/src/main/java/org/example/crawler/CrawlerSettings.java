@@ -1,14 +1,110 @@
 package org.example.crawler;
 
+import org.example.loader.filter.SeenFilterType;
+import org.example.loader.frontier.CrawlPolicy;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CrawlerSettings {
 
+    /**
+     * Dispatch workers sharing the frontier of the crawl.
+     */
     int unitCount() default 1;
 
     long pauseRequest() default 0L;
 
     int limitRequest() default 1;
+
+    int maxConnectionsPerHost() default 6;
+
+    long keepAliveTime() default 30_000L;
+
+    double requestsPerSecond() default 0.0;
+
+    int burst() default 0;
+
+    int maxConcurrentRequests() default 64;
+
+    boolean adaptiveRate() default true;
+
+    double minRequestsPerSecond() default 0.5;
+
+    double maxRequestsPerSecond() default 0.0;
+
+    SeenFilterType seenFilter() default SeenFilterType.EXACT;
+
+    long expectedInsertions() default 1_000_000L;
+
+    double falsePositiveRate() default 0.01;
+
+    String seenFilterPath() default "";
+
+    boolean dedupLinks() default false;
+
+    String frontierPath() default "";
+
+    int hotWindow() default 10_000;
+
+    long checkpointInterval() default 30_000L;
+
+    CrawlPolicy crawlPolicy() default CrawlPolicy.PRIORITY;
+
+    boolean hostFairness() default false;
+
+    boolean compression() default true;
+
+    long maxBodySize() default 67_108_864L;
+
+    String cachePath() default "";
+
+    long cacheMaxBytes() default 1_073_741_824L;
+
+    long metricsInterval() default 10_000L;
+
+    String accessLogPath() default "";
+
+    double accessLogSampleRate() default 1.0;
+
+    long accessLogMaxFileSize() default 67_108_864L;
+
+    int accessLogMaxFiles() default 5;
+
+    int accessLogBufferSize() default 8192;
+
+    int maxRetries() default 3;
+
+    long retryBaseDelay() default 1_000L;
+
+    long retryMaxDelay() default 60_000L;
+
+    double retryBudgetRatio() default 0.2;
+
+    int retryBudgetReserve() default 10;
+
+    boolean circuitBreaker() default true;
+
+    double breakerFailureRate() default 0.5;
+
+    long breakerSlowCallDuration() default 20_000L;
+
+    double breakerSlowCallRate() default 0.8;
+
+    int breakerWindowSize() default 50;
+
+    int breakerMinimumCalls() default 20;
+
+    long breakerOpenDuration() default 30_000L;
+
+    int breakerProbes() default 3;
+
+    int handlerThreads() default 8;
+
+    int handlerQueueSize() default 1024;
+
+    long frontierHighWater() default 1_000_000L;
+
+    long frontierLowWater() default 500_000L;
 }
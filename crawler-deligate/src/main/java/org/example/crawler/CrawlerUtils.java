@@ -2,6 +2,14 @@ package org.example.crawler;
 
 import org.example.loader.HttpClientLoader;
 import org.example.loader.Loader;
+import org.example.loader.LoaderSettings;
+import org.example.loader.cluster.ClusterCoordinator;
+import org.example.loader.cluster.ClusterNode;
+import org.example.loader.cluster.ClusterTransport;
+import org.example.loader.cluster.ConsistentHashPartitioner;
+import org.example.loader.cluster.LocalCoordinator;
+import org.example.loader.cluster.LoopbackTransport;
+import org.example.loader.cluster.Partitioner;
 import org.example.loader.events.DataLoader;
 import org.slf4j.Logger;
 import sun.reflect.ReflectionFactory;
@@ -26,6 +34,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 public final class CrawlerUtils {
     private static final Logger log = getLogger(CrawlerUtils.class);
+    private static final long SHUTDOWN_GRACE_TIME = TimeUnit.SECONDS.toMillis(10);
 
     static final ExecutorService crawlerExecutor;
 
@@ -48,28 +57,87 @@ public final class CrawlerUtils {
             return;
         }
 
-        List<DataCrawler> units = new ArrayList<>();
+        DataCrawler crawler = null;
         try {
+            // units are dispatch workers of one loader, the crawler seeds and stops it once
+            DataLoader loader = new HttpClientLoader(loaderSettings(crawlerClass, crawlerSettings));
+            crawler = (DataCrawler) crawlerConstructor.newInstance(loader);
 
-            DataLoader loader = new HttpClientLoader(crawlerSettings.pauseRequest(), crawlerSettings.limitRequest());
-            List<CompletableFuture<?>> crawlerFeatures = new ArrayList<>();
-            long maxUnitWorkingTime = 0;
-            for (int i = 0; i < crawlerSettings.unitCount(); i++) {
-                DataCrawler crawler = (DataCrawler) crawlerConstructor.newInstance(loader);
+            long maxUnitWorkingTime = crawler.maxUnitWorkingTime();
+            if (maxUnitWorkingTime == 0) {
+                maxUnitWorkingTime = TimeUnit.MINUTES.toMillis(5);
+            }
+            CompletableFuture.runAsync(crawler, crawlerExecutor)
+                  .get(maxUnitWorkingTime + SHUTDOWN_GRACE_TIME, TimeUnit.MILLISECONDS);
 
-                crawlerFeatures.add(CompletableFuture.runAsync(crawler, crawlerExecutor));
-                units.add(crawler);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            log.error("Via try to create crawler", e);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            if (crawler != null) {
+                crawler.onComplete();
+            }
+            log.error("Cancel cause {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a distributed crawl of {@code nodeCount} nodes inside this process,
+     * connected by a loopback transport. Paths from the settings get the node
+     * id appended so the nodes do not share files.
+     */
+    public static void runCluster(Class<? extends DataCrawler> crawlerClass, int nodeCount) {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add("node-" + i);
+        }
+        try (LoopbackTransport transport = new LoopbackTransport()) {
+            runNodes(crawlerClass, nodes, new ConsistentHashPartitioner(nodes), transport, new LocalCoordinator());
+        }
+    }
+
+    /**
+     * Runs node {@code node} of a distributed crawl, the other nodes run the
+     * same crawler class elsewhere with the same partitioner.
+     */
+    public static void runNode(Class<? extends DataCrawler> crawlerClass, String node, Partitioner partitioner,
+                               ClusterTransport transport, ClusterCoordinator coordinator) {
+        runNodes(crawlerClass, List.of(node), partitioner, transport, coordinator);
+    }
 
-                if (maxUnitWorkingTime == 0) {
-                    maxUnitWorkingTime = crawler.maxUnitWorkingTime();
-                }
+    private static void runNodes(Class<? extends DataCrawler> crawlerClass, List<String> nodes, Partitioner partitioner,
+                                 ClusterTransport transport, ClusterCoordinator coordinator) {
+        Constructor<?> crawlerConstructor;
+        try {
+            crawlerConstructor = crawlerClass.getDeclaredConstructor(DataLoader.class);
+        } catch (NoSuchMethodException e) {
+            log.error("Cannot find constructor for {}", crawlerClass);
+            return;
+        }
+
+        CrawlerSettings crawlerSettings = crawlerClass.getAnnotation(CrawlerSettings.class);
+        if (crawlerSettings == null) {
+            log.error("Cannot find @CrawlerSettings annotation in {}", crawlerClass);
+            return;
+        }
+
+        List<DataCrawler> units = new ArrayList<>();
+        try {
+            // every node joins the coordinator before any of them starts
+            List<DataCrawler> crawlers = new ArrayList<>();
+            for (String node : nodes) {
+                HttpClientLoader loader = new HttpClientLoader(nodeSettings(crawlerClass, crawlerSettings, node));
+                ClusterNode clusterNode = new ClusterNode(node, loader, partitioner, transport, coordinator);
+                crawlers.add((DataCrawler) crawlerConstructor.newInstance(clusterNode));
             }
 
-            if (maxUnitWorkingTime == 0) {
-                maxUnitWorkingTime = TimeUnit.MINUTES.toMillis(5);
+            List<CompletableFuture<?>> crawlerFeatures = new ArrayList<>();
+            for (DataCrawler crawler : crawlers) {
+                crawlerFeatures.add(CompletableFuture.runAsync(crawler, crawlerExecutor));
+                units.add(crawler);
             }
+            long maxUnitWorkingTime = crawlers.getFirst().maxUnitWorkingTime();
             for (CompletableFuture<?> crawlerFuture : crawlerFeatures) {
-                crawlerFuture.get(maxUnitWorkingTime, TimeUnit.MILLISECONDS);
+                crawlerFuture.get(maxUnitWorkingTime + SHUTDOWN_GRACE_TIME, TimeUnit.MILLISECONDS);
             }
 
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
@@ -79,4 +147,76 @@ public final class CrawlerUtils {
             log.error("Cancel cause {}", e.getMessage());
         }
     }
+
+    static LoaderSettings loaderSettings(Class<?> crawlerClass, CrawlerSettings crawlerSettings) {
+        return settingsBuilder(crawlerSettings)
+              .name(crawlerClass.getSimpleName())
+              .build();
+    }
+
+    static LoaderSettings nodeSettings(Class<?> crawlerClass, CrawlerSettings crawlerSettings, String node) {
+        return settingsBuilder(crawlerSettings)
+              .name(crawlerClass.getSimpleName() + "@" + node)
+              .seenFilterPath(nodePath(crawlerSettings.seenFilterPath(), node))
+              .frontierPath(nodePath(crawlerSettings.frontierPath(), node))
+              .cachePath(nodePath(crawlerSettings.cachePath(), node))
+              .accessLogPath(nodePath(crawlerSettings.accessLogPath(), node))
+              .build();
+    }
+
+    private static String nodePath(String path, String node) {
+        return path.isBlank() ? path : path + "-" + node;
+    }
+
+    private static LoaderSettings.Builder settingsBuilder(CrawlerSettings crawlerSettings) {
+        return new LoaderSettings.Builder()
+              .dispatchWorkers(crawlerSettings.unitCount())
+              .pauseRequest(crawlerSettings.pauseRequest())
+              .limitRequest(crawlerSettings.limitRequest())
+              .maxConnectionsPerHost(crawlerSettings.maxConnectionsPerHost())
+              .keepAliveTime(crawlerSettings.keepAliveTime())
+              .requestsPerSecond(crawlerSettings.requestsPerSecond())
+              .burst(crawlerSettings.burst())
+              .maxConcurrentRequests(crawlerSettings.maxConcurrentRequests())
+              .adaptiveRate(crawlerSettings.adaptiveRate())
+              .minRequestsPerSecond(crawlerSettings.minRequestsPerSecond())
+              .maxRequestsPerSecond(crawlerSettings.maxRequestsPerSecond())
+              .seenFilterType(crawlerSettings.seenFilter())
+              .expectedInsertions(crawlerSettings.expectedInsertions())
+              .falsePositiveRate(crawlerSettings.falsePositiveRate())
+              .seenFilterPath(crawlerSettings.seenFilterPath())
+              .dedupLinks(crawlerSettings.dedupLinks())
+              .frontierPath(crawlerSettings.frontierPath())
+              .hotWindow(crawlerSettings.hotWindow())
+              .checkpointInterval(crawlerSettings.checkpointInterval())
+              .crawlPolicy(crawlerSettings.crawlPolicy())
+              .hostFairness(crawlerSettings.hostFairness())
+              .compression(crawlerSettings.compression())
+              .maxBodySize(crawlerSettings.maxBodySize())
+              .cachePath(crawlerSettings.cachePath())
+              .cacheMaxBytes(crawlerSettings.cacheMaxBytes())
+              .metricsInterval(crawlerSettings.metricsInterval())
+              .accessLogPath(crawlerSettings.accessLogPath())
+              .accessLogSampleRate(crawlerSettings.accessLogSampleRate())
+              .accessLogMaxFileSize(crawlerSettings.accessLogMaxFileSize())
+              .accessLogMaxFiles(crawlerSettings.accessLogMaxFiles())
+              .accessLogBufferSize(crawlerSettings.accessLogBufferSize())
+              .maxRetries(crawlerSettings.maxRetries())
+              .retryBaseDelay(crawlerSettings.retryBaseDelay())
+              .retryMaxDelay(crawlerSettings.retryMaxDelay())
+              .retryBudgetRatio(crawlerSettings.retryBudgetRatio())
+              .retryBudgetReserve(crawlerSettings.retryBudgetReserve())
+              .circuitBreaker(crawlerSettings.circuitBreaker())
+              .breakerFailureRate(crawlerSettings.breakerFailureRate())
+              .breakerSlowCallDuration(crawlerSettings.breakerSlowCallDuration())
+              .breakerSlowCallRate(crawlerSettings.breakerSlowCallRate())
+              .breakerWindowSize(crawlerSettings.breakerWindowSize())
+              .breakerMinimumCalls(crawlerSettings.breakerMinimumCalls())
+              .breakerOpenDuration(crawlerSettings.breakerOpenDuration())
+              .breakerProbes(crawlerSettings.breakerProbes())
+              .handlerThreads(crawlerSettings.handlerThreads())
+              .handlerQueueSize(crawlerSettings.handlerQueueSize())
+              .frontierHighWater(crawlerSettings.frontierHighWater())
+              .frontierLowWater(crawlerSettings.frontierLowWater());
+    }
 }
@@ -5,6 +5,7 @@ import org.example.loader.Loader;
 import org.example.loader.events.DataLoader;
 import org.example.loader.events.LoaderTask;
 import org.example.loader.events.SuccessEvent;
+import org.example.loader.metrics.LoaderMetrics;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
@@ -12,11 +13,14 @@ import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class DataCrawler implements Runnable {
     private static final Logger log = getLogger(DataCrawler.class);
+    public static final String START_HANDLER = "start";
+
     private long startScanTime;
     private final DataLoader loader;
 
@@ -36,6 +40,14 @@ public abstract class DataCrawler implements Runnable {
         log.info("End scan, running time {}s", (System.currentTimeMillis() - startScanTime) / 1000.0);
     }
 
+    public LoaderMetrics metrics() {
+        return loader.metrics();
+    }
+
+    protected void registerHandler(String name, Consumer<SuccessEvent> handler) {
+        loader.registerHandler(name, handler);
+    }
+
     public boolean isSuitable(String value) {
         return loader.isSuitable(value);
     }
@@ -48,15 +60,22 @@ public abstract class DataCrawler implements Runnable {
     public void run() {
         beforeStart();
 
-        loader.addTask(createStartLink())
-              .onSuccess(this::handleSuccessStart);
+        registerHandler(START_HANDLER, this::handleSuccessStart);
+        long resumed = loader.resume();
+        if (resumed > 0) {
+            log.info("Resuming crawl with {} pending tasks", resumed);
+        } else {
+            loader.addTask(createStartLink(), START_HANDLER);
+        }
 
         loader.startUp();
 
-        while (true) {
-            if (!loader.isDone()) {
-                break;
+        try {
+            if (!loader.awaitIdle(maxUnitWorkingTime(), TimeUnit.MILLISECONDS)) {
+                log.warn("Crawl is not finished after {}ms, {} tasks in flight", maxUnitWorkingTime(), loader.inFlight());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
         onComplete();
@@ -1,6 +1,5 @@
 package org.example.crawler.example;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import org.example.crawler.CrawlerSettings;
 import org.example.crawler.CrawlerUtils;
 import org.example.crawler.DataCrawler;
@@ -16,8 +15,13 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class FilmCrawler extends DataCrawler {
     private static final Logger log = getLogger(FilmCrawler.class);
 
+    private static final String TODO_HANDLER = "todo";
+    private static final String POST_HANDLER = "post";
+
     public FilmCrawler(DataLoader loader) {
         super(loader);
+        registerHandler(TODO_HANDLER, this::handleTodo);
+        registerHandler(POST_HANDLER, se -> log.info(se.json("/title").asText()));
     }
 
     @Override
@@ -27,19 +31,20 @@ public class FilmCrawler extends DataCrawler {
 
     @Override
     public void handleSuccessStart(SuccessEvent filmSe) {
-        for (JsonNode node : filmSe.json()) {
+        filmSe.forEachJson("", node -> {
             String nodeId = node.at("/id").asText();
             if (!isSuitable(nodeId)) {
-                continue;
+                return;
             }
             Link link = new Link.Builder("https://jsonplaceholder.typicode.com/todos/" + nodeId)
                   .build();
 
-            filmSe.addTask(link)
-                  .onSuccess(se -> se.addTask(new Link.Builder("https://jsonplaceholder.typicode.com/posts/" + se.json().at("/id").asText()).build())
-                        .onSuccess(se1 -> log.info(se1.json().at("/title").asText()))
-                  );
-        }
+            filmSe.addTask(link, TODO_HANDLER);
+        });
+    }
+
+    private void handleTodo(SuccessEvent se) {
+        se.addTask(new Link.Builder("https://jsonplaceholder.typicode.com/posts/" + se.json("/id").asText()).build(), POST_HANDLER);
     }
 
     public static void main(String[] args) {
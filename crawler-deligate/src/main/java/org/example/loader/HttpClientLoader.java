@@ -2,17 +2,23 @@ package org.example.loader;
 
 import org.apache.commons.lang3.StringUtils;
 import org.example.loader.events.AbstractDataLoader;
+import org.example.loader.body.ResponseBody;
 import org.example.loader.events.FailEvent;
+import org.example.loader.events.LoaderEvent;
 import org.example.loader.events.LoaderTask;
 import org.example.loader.events.SuccessEvent;
 import org.slf4j.Logger;
 
-import java.net.HttpCookie;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -23,51 +29,64 @@ public class HttpClientLoader extends AbstractDataLoader {
         super(pauseRequest, limitRequest);
     }
 
+    public HttpClientLoader(LoaderSettings settings) {
+        super(settings);
+    }
+
     @Override
     public boolean runTask(LoaderTask loaderTask) {
         Link link = loaderTask.getLink();
         initLoader(link);
 
-        try (HttpClient client = HttpClient.newBuilder().executor(loaderExecutor).build()) {
-            HttpRequest request = getRequest(link);
+        try {
+            HttpRequest request = getRequest(loaderTask);
 
-            client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
-                  .whenComplete((response, throwable) -> {
+            connectionManager.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream(), response -> toEvent(link, response))
+                  .whenComplete((event, throwable) -> {
                       if (throwable != null) {
-                          loaderTask.complete(new FailEvent(this, link, throwable.getLocalizedMessage(), throwable));
+                          Throwable cause = unwrap(throwable);
+                          complete(loaderTask, new FailEvent(facade(), link, cause.getLocalizedMessage(), cause));
                           return;
                       }
-                      logLink(link);
-
-                      int code = response.statusCode();
-
-                      if (is2xxCode(code)) {
-                          handleResponse(response);
-                          loaderTask.complete(new SuccessEvent(this, link, response.body()));
-                      } else {
-                          loaderTask.complete(new FailEvent(this, link, response.body(), getExceptionForStatus(code)));
-                      }
-
+                      complete(loaderTask, event);
                   });
         } catch (Exception e) {
             log.error(e.getLocalizedMessage());
+            complete(loaderTask, new FailEvent(facade(), link, e.getLocalizedMessage(), e));
         }
 
+        return true;
+    }
+
+    private LoaderEvent toEvent(Link link, HttpResponse<InputStream> response) {
+        int code = response.statusCode();
+        Map<String, List<String>> headers = response.headers().map();
+        ResponseBody body;
+        try (InputStream in = response.body()) {
+            body = readBody(in, response.headers().firstValueAsLong("Content-Length").orElse(-1L), headers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
-        return false;
+        if (is2xxCode(code) || isNotModified(code)) {
+            return new SuccessEvent(facade(), link, code, headers, body);
+        }
+        return new FailEvent(facade(), link, code, headers, body, getExceptionForStatus(code));
     }
 
-    private void handleResponse(HttpResponse<String> response) {
-        response.headers().map().entrySet().stream()
-              .filter(e -> StringUtils.equalsIgnoreCase(e.getKey(), "set-cookie"))
-              .forEach(e -> e.getValue().forEach(v -> cookies.put(e.getKey(), new HttpCookie(e.getKey(), v))));
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
     }
 
-    private HttpRequest getRequest(Link link) {
+    private HttpRequest getRequest(LoaderTask loaderTask) {
+        Link link = loaderTask.getLink();
         HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(link.buildUrl()));
 
-        link.getHeaders()
-              .forEach(request::header);
+        applyHeaders(loaderTask, request::header);
 
         if (StringUtils.isNoneBlank(link.getBody())) {
             request.method(link.getMethod(), HttpRequest.BodyPublishers.ofString(link.getBody()));
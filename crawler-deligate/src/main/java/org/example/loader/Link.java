@@ -1,33 +1,47 @@
 package org.example.loader;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.example.util.HashUtils;
 
 import java.io.Serializable;
+import java.net.URI;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 
 @Getter
 public class Link {
 
     public static final Link EMPTY_URL = new Link.Builder("https://example.org/").build();
 
-    @Setter
     private String url;
     private final Map<String, String> headers;
     private final Map<String, String> parameters;
     private final Map<String, Cookie> cookies;
     private String body;
     private HttpMethod method;
+    @Setter
+    private int priority;
+    @Setter
+    private int depth;
+    // dropped by every change of url, parameters, body or method
+    @Getter(AccessLevel.NONE)
+    private LinkKey key;
 
     public Link() {
         headers = new HashMap<>();
-        parameters = new HashMap<>();
+        parameters = new LinkedHashMap<>();
         cookies = new HashMap<>();
         method = HttpMethod.GET;
     }
@@ -39,71 +53,179 @@ public class Link {
 
     public Link addParameter(String key, String value) {
         parameters.put(key, value);
+        this.key = null;
         return this;
     }
 
+    /**
+     * Read-only, parameters are changed through {@link #addParameter}.
+     */
+    public Map<String, String> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+        this.key = null;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+        this.key = null;
+    }
+
+    public void setMethod(HttpMethod method) {
+        this.method = method;
+        this.key = null;
+    }
+
+    /**
+     * Links are equal when their {@link #key()} is, so they differ only in
+     * spelling of the same request.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) {
             return true;
         }
-        if (!(o instanceof Link link)) {
-            return false;
-        }
-
-        if (!Objects.equals(url, link.url)) {
-            return false;
-        }
-        if (!parameters.equals(link.parameters)) {
-            return false;
-        }
-        if (!Objects.equals(body, link.body)) {
-            return false;
-        }
-        return method == link.method;
+        return o instanceof Link link && key().equals(link.key());
     }
 
     @Override
     public int hashCode() {
-        int result = url != null ? url.hashCode() : 0;
-        result = 31 * result + parameters.hashCode();
-        result = 31 * result + (body != null ? body.hashCode() : 0);
-        result = 31 * result + (method != null ? method.hashCode() : 0);
-        return result;
+        return key().hashCode();
     }
 
     public String getMethod() {
         return method.getName();
     }
 
+    public String getHost() {
+        return key().host();
+    }
+
 
     public static class Builder {
         private final String url;
+        private int priority;
+        private int depth;
 
         public Builder(String url) {
             this.url = url;
         }
 
+        public Builder priority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder depth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
         public Link build() {
 
             Link link = new Link();
             link.setUrl(url);
+            link.setPriority(priority);
+            link.setDepth(depth);
             return link;
         }
 
     }
 
+    /**
+     * Appends the parameters to the URL, keys and values form-encoded one by
+     * one. The fragment is not sent, so it is dropped here.
+     */
     public String buildUrl() {
         if (parameters.isEmpty()) {
             return url;
         }
+        int fragment = url.indexOf('#');
+        String base = fragment < 0 ? url : url.substring(0, fragment);
+        StringBuilder built = new StringBuilder(base.length() + parameters.size() * 16).append(base)
+              .append(base.indexOf('?') < 0 ? '?' : '&');
+        parameters.forEach((k, v) -> built.append(encode(k)).append('=').append(encode(v)).append('&'));
+        built.setLength(built.length() - 1);
+        return built.toString();
+    }
+
+    public String normalizedKey() {
+        return key().value();
+    }
+
+    /**
+     * Built on first use and kept until the link changes. Changing the
+     * header or cookie maps does not touch the key.
+     */
+    public LinkKey key() {
+        LinkKey current = key;
+        if (current == null) {
+            current = createKey();
+            key = current;
+        }
+        return current;
+    }
+
+    private LinkKey createKey() {
+        StringBuilder key = new StringBuilder(method.getName()).append(' ');
+        List<String> query = new ArrayList<>();
+        String host = "";
+        try {
+            URI uri = URI.create(url).normalize();
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            key.append(scheme).append("://");
+            if (uri.getRawAuthority() != null) {
+                host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+                key.append(uri.getHost() == null ? uri.getRawAuthority() : host);
+                int port = uri.getPort();
+                if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+                    key.append(':').append(port);
+                }
+            }
+            String path = uri.getRawPath();
+            key.append(path == null || path.isEmpty() ? "/" : path);
+            if (uri.getRawQuery() != null) {
+                for (String pair : uri.getRawQuery().split("&")) {
+                    if (!pair.isEmpty()) {
+                        query.add(canonicalPair(pair));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            int fragment = url.indexOf('#');
+            key.append(fragment < 0 ? url : url.substring(0, fragment));
+        }
 
-        StringBuilder paramsString = new StringBuilder();
-        parameters.forEach((k, v) -> {
-            paramsString.append(k).append('=').append(v).append('&');
-        });
+        parameters.forEach((k, v) -> query.add(encode(k) + '=' + encode(v)));
+        if (!query.isEmpty()) {
+            Collections.sort(query);
+            key.append('?').append(String.join("&", query));
+        }
+        if (body != null) {
+            key.append(' ').append(Long.toHexString(HashUtils.hash64(body)));
+        }
+        return new LinkKey(key.toString(), host);
+    }
+
+    // %20, + and a raw space in a query all end up as +
+    private static String canonicalPair(String pair) {
+        int equals = pair.indexOf('=');
+        try {
+            if (equals < 0) {
+                return encode(URLDecoder.decode(pair, StandardCharsets.UTF_8));
+            }
+            return encode(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8)) + '='
+                  + encode(URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return pair;
+        }
+    }
 
-        return url + '?' + URLEncoder.encode(paramsString.substring(0, paramsString.length() - 1), StandardCharsets.UTF_8);
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
 
     public record Cookie(String key, String value) {
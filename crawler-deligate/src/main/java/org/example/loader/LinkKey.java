@@ -0,0 +1,57 @@
+package org.example.loader;
+
+import org.example.util.HashUtils;
+
+/**
+ * Canonical identity of a request: method, normalized URL with sorted query
+ * parameters and a hash of the body. The 64-bit hash is computed once, so
+ * the key can be compared and looked up without touching the URL again.
+ * <p>
+ * The hash is {@link HashUtils#hash64} of {@link #value()}, filters that
+ * were filled with the key strings stay compatible.
+ */
+public final class LinkKey {
+
+    private final String value;
+    private final String host;
+    private final long hash;
+
+    LinkKey(String value, String host) {
+        this.value = value;
+        this.host = host;
+        this.hash = HashUtils.hash64(value);
+    }
+
+    public String value() {
+        return value;
+    }
+
+    /**
+     * @return lower case host, empty when the URL has none
+     */
+    public String host() {
+        return host;
+    }
+
+    public long hash64() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof LinkKey other && hash == other.hash && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
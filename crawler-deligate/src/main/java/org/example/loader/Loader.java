@@ -1,8 +1,11 @@
 package org.example.loader;
 
 import org.apache.commons.lang3.StringUtils;
+import org.example.loader.body.ResponseBody;
+import org.example.loader.connection.ConnectionManager;
 import org.example.loader.events.AbstractDataLoader;
 import org.example.loader.events.FailEvent;
+import org.example.loader.events.LoaderEvent;
 import org.example.loader.events.LoaderTask;
 import org.example.loader.events.SuccessEvent;
 import org.example.model.ModelConstants;
@@ -12,12 +15,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.net.HttpCookie;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -30,70 +34,91 @@ public class Loader extends AbstractDataLoader {
         super(pauseRequest, limitRequest);
     }
 
+    public Loader(LoaderSettings settings) {
+        super(settings);
+    }
+
     @Override
     public boolean runTask(LoaderTask loaderTask) {
         Link link = loaderTask.getLink();
         initLoader(link);
 
         CompletableFuture.runAsync(() -> {
+            LoaderEvent event;
             try {
-                URL taskUrl = new URI(link.buildUrl()).toURL();
-                HttpURLConnection urlConnection = (HttpURLConnection) taskUrl.openConnection();
-
-                initConnection(urlConnection, link);
-                urlConnection.setRequestMethod(link.getMethod());
-
-                if (link.getBody() != null) {
-                    urlConnection.setDoOutput(true);
-                    try (OutputStream os = urlConnection.getOutputStream();
-                         OutputStreamWriter osw = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
-                        osw.write(link.getBody());
-                        osw.flush();
-                    }
-                }
-
-                logLink(link);
-                int responseCode = urlConnection.getResponseCode();
-                if (is2xxCode(responseCode)) {
-                    handleConnection(urlConnection);
-                    InputStream response = urlConnection.getInputStream();
-
-                    SuccessEvent successEvent = new SuccessEvent(this, link, new String(response.readAllBytes(), StandardCharsets.UTF_8));
-                    loaderTask.complete(successEvent);
-                } else if (is4xxCode(responseCode)) {
-                    InputStream response = urlConnection.getErrorStream();
-
-                    FailEvent successEvent = new FailEvent(this, link, new String(response.readAllBytes()), getExceptionForStatus(responseCode));
-                    loaderTask.complete(successEvent);
-                } else {
-                    String responseMessage = urlConnection.getResponseMessage();
-
-                    FailEvent successEvent = new FailEvent(this, link, responseMessage, getExceptionForStatus(responseCode));
-                    loaderTask.complete(successEvent);
+                URI taskUri = new URI(link.buildUrl());
+                try (ConnectionManager.Lease lease = connectionManager.acquire(taskUri)) {
+                    event = load(taskUri.toURL(), loaderTask);
                 }
-
             } catch (IOException | URISyntaxException e) {
-                loaderTask.complete(new FailEvent(this, link, e.getMessage(), e));
+                event = new FailEvent(facade(), link, e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                event = new FailEvent(facade(), link, e.getMessage(), e);
             }
+            complete(loaderTask, event);
         }, loaderExecutor);
 
         return true;
     }
 
-    protected void handleConnection(HttpURLConnection connection) {
-        connection.getHeaderFields().forEach((s, values) -> {
-            if (StringUtils.equalsIgnoreCase(s, ModelConstants.SET_COOKIE_HEADER)) {
-                for (String cookieString : values) {
-                    String[] split = cookieString.split("=");
-                    String key = split[0];
-                    String value = split[1];
-                    if (value.endsWith(";")) {
-                        value = value.substring(0, value.length() - 1);
-                    }
-                    this.cookies.put(key, new HttpCookie(key, value));
+    private LoaderEvent load(URL taskUrl, LoaderTask loaderTask) throws IOException {
+        Link link = loaderTask.getLink();
+        HttpURLConnection urlConnection = (HttpURLConnection) taskUrl.openConnection();
+
+        initConnection(urlConnection, loaderTask);
+        urlConnection.setRequestMethod(link.getMethod());
+
+        if (link.getBody() != null) {
+            urlConnection.setDoOutput(true);
+        }
+
+        // connecting explicitly separates the connect time from the time to first byte
+        long start = System.nanoTime();
+        urlConnection.connect();
+        long connected = System.nanoTime();
+        metrics.onConnect(connected - start);
+
+        if (link.getBody() != null) {
+            try (OutputStream os = urlConnection.getOutputStream();
+                 OutputStreamWriter osw = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+                osw.write(link.getBody());
+                osw.flush();
+            }
+        }
+
+        int responseCode = urlConnection.getResponseCode();
+        metrics.onFirstByte(System.nanoTime() - connected);
+        Map<String, List<String>> headers = headerMap(urlConnection.getHeaderFields());
+        handleConnection(urlConnection);
+        if (is2xxCode(responseCode) || isNotModified(responseCode)) {
+            try (InputStream response = urlConnection.getInputStream()) {
+                return new SuccessEvent(facade(), link, responseCode, headers, readBody(response, urlConnection.getContentLengthLong(), headers));
+            }
+        }
+
+        // the error stream has to be drained as well, otherwise the connection is not kept alive
+        ResponseBody body;
+        try (InputStream response = urlConnection.getErrorStream()) {
+            if (is4xxCode(responseCode)) {
+                body = response == null ? ResponseBody.of(null) : readBody(response, urlConnection.getContentLengthLong(), headers);
+            } else {
+                if (response != null) {
+                    response.transferTo(OutputStream.nullOutputStream());
                 }
+                body = ResponseBody.of(urlConnection.getResponseMessage());
             }
-        });
+        }
+        return new FailEvent(facade(), link, responseCode, headers, body, getExceptionForStatus(responseCode));
+    }
+
+    // redirects are followed by the connection, its URL is the one that answered
+    protected void handleConnection(HttpURLConnection connection) {
+        try {
+            cookieJar.put(connection.getURL().toURI(), connection.getHeaderFields());
+        } catch (URISyntaxException e) {
+            log.debug("Cannot store cookies of {}", connection.getURL(), e);
+        }
     }
 
 }
@@ -0,0 +1,484 @@
+package org.example.loader;
+
+import lombok.Getter;
+import org.example.loader.breaker.CircuitBreakerSettings;
+import org.example.loader.filter.SeenFilterType;
+import org.example.loader.frontier.CrawlPolicy;
+import org.example.loader.limit.RateLimiterSettings;
+import org.example.loader.log.AccessLogSettings;
+import org.example.loader.retry.RetrySettings;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+public class LoaderSettings {
+
+    public static final LoaderSettings DEFAULT = new LoaderSettings.Builder().build();
+
+    private long pauseRequest;
+    private int limitRequest;
+    private int maxConnectionsPerHost;
+    private long keepAliveTime;
+    private long connectTimeout;
+    private boolean preferHttp2;
+    private double requestsPerSecond;
+    private int burst;
+    private int maxConcurrentRequests;
+    private boolean adaptiveRate;
+    private double minRequestsPerSecond;
+    private double maxRequestsPerSecond;
+    private SeenFilterType seenFilterType;
+    private long expectedInsertions;
+    private double falsePositiveRate;
+    private String seenFilterPath;
+    private boolean dedupLinks;
+    private String frontierPath;
+    private int hotWindow;
+    private int segmentSize;
+    private long checkpointInterval;
+    private CrawlPolicy crawlPolicy;
+    private boolean hostFairness;
+    private boolean compression;
+    private long maxBodySize;
+    private String cachePath;
+    private long cacheMaxBytes;
+    private String name;
+    private long metricsInterval;
+    private String accessLogPath;
+    private double accessLogSampleRate;
+    private long accessLogMaxFileSize;
+    private int accessLogMaxFiles;
+    private int accessLogBufferSize;
+    private int maxRetries;
+    private long retryBaseDelay;
+    private long retryMaxDelay;
+    private double retryBudgetRatio;
+    private int retryBudgetReserve;
+    private boolean circuitBreaker;
+    private double breakerFailureRate;
+    private long breakerSlowCallDuration;
+    private double breakerSlowCallRate;
+    private int breakerWindowSize;
+    private int breakerMinimumCalls;
+    private long breakerOpenDuration;
+    private int breakerProbes;
+    private int breakerMaxParked;
+    private int breakerMaxHalfOpenFailures;
+    private int dispatchWorkers;
+    private int handlerThreads;
+    private int handlerQueueSize;
+    private long frontierHighWater;
+    private long frontierLowWater;
+
+    private LoaderSettings() {
+    }
+
+    public RateLimiterSettings rateLimiterSettings() {
+        return new RateLimiterSettings(requestsPerSecond, burst, maxConcurrentRequests, adaptiveRate,
+              minRequestsPerSecond, maxRequestsPerSecond);
+    }
+
+    public RetrySettings retrySettings() {
+        return new RetrySettings(maxRetries, retryBaseDelay, retryMaxDelay, retryBudgetRatio, retryBudgetReserve);
+    }
+
+    public CircuitBreakerSettings circuitBreakerSettings() {
+        return new CircuitBreakerSettings(circuitBreaker, breakerFailureRate, breakerSlowCallDuration, breakerSlowCallRate,
+              breakerWindowSize, breakerMinimumCalls, breakerOpenDuration, breakerProbes, breakerMaxParked,
+              breakerMaxHalfOpenFailures);
+    }
+
+    public AccessLogSettings accessLogSettings() {
+        return new AccessLogSettings(accessLogPath, accessLogSampleRate, accessLogMaxFileSize, accessLogMaxFiles,
+              accessLogBufferSize);
+    }
+
+    public static class Builder {
+        private long pauseRequest = 0L;
+        private int limitRequest = 1;
+        private int maxConnectionsPerHost = 6;
+        private long keepAliveTime = TimeUnit.SECONDS.toMillis(30);
+        private long connectTimeout = TimeUnit.SECONDS.toMillis(10);
+        private boolean preferHttp2 = true;
+        private double requestsPerSecond = 0.0;
+        private int burst = 0;
+        private int maxConcurrentRequests = 64;
+        private boolean adaptiveRate = true;
+        private double minRequestsPerSecond = 0.5;
+        private double maxRequestsPerSecond = 0.0;
+        private SeenFilterType seenFilterType = SeenFilterType.EXACT;
+        private long expectedInsertions = 1_000_000L;
+        private double falsePositiveRate = 0.01;
+        private String seenFilterPath = "";
+        private boolean dedupLinks = false;
+        private String frontierPath = "";
+        private int hotWindow = 10_000;
+        private int segmentSize = 64 * 1024 * 1024;
+        private long checkpointInterval = TimeUnit.SECONDS.toMillis(30);
+        private CrawlPolicy crawlPolicy = CrawlPolicy.PRIORITY;
+        private boolean hostFairness = false;
+        private boolean compression = true;
+        private long maxBodySize = 64L * 1024 * 1024;
+        private String cachePath = "";
+        private long cacheMaxBytes = 1024L * 1024 * 1024;
+        private String name = "loader";
+        private long metricsInterval = TimeUnit.SECONDS.toMillis(10);
+        private String accessLogPath = "";
+        private double accessLogSampleRate = 1.0;
+        private long accessLogMaxFileSize = 64L * 1024 * 1024;
+        private int accessLogMaxFiles = 5;
+        private int accessLogBufferSize = 8192;
+        private int maxRetries = 3;
+        private long retryBaseDelay = TimeUnit.SECONDS.toMillis(1);
+        private long retryMaxDelay = TimeUnit.MINUTES.toMillis(1);
+        private double retryBudgetRatio = 0.2;
+        private int retryBudgetReserve = 10;
+        private boolean circuitBreaker = true;
+        private double breakerFailureRate = 0.5;
+        private long breakerSlowCallDuration = TimeUnit.SECONDS.toMillis(20);
+        private double breakerSlowCallRate = 0.8;
+        private int breakerWindowSize = 50;
+        private int breakerMinimumCalls = 20;
+        private long breakerOpenDuration = TimeUnit.SECONDS.toMillis(30);
+        private int breakerProbes = 3;
+        private int breakerMaxParked = 1_000;
+        private int breakerMaxHalfOpenFailures = 3;
+        private int dispatchWorkers = 1;
+        private int handlerThreads = 8;
+        private int handlerQueueSize = 1024;
+        private long frontierHighWater = 1_000_000L;
+        private long frontierLowWater = 500_000L;
+
+        public Builder pauseRequest(long pauseRequest) {
+            this.pauseRequest = pauseRequest;
+            return this;
+        }
+
+        public Builder limitRequest(int limitRequest) {
+            this.limitRequest = limitRequest;
+            return this;
+        }
+
+        public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        public Builder keepAliveTime(long keepAliveTime) {
+            this.keepAliveTime = keepAliveTime;
+            return this;
+        }
+
+        public Builder connectTimeout(long connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder preferHttp2(boolean preferHttp2) {
+            this.preferHttp2 = preferHttp2;
+            return this;
+        }
+
+        public Builder requestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        public Builder burst(int burst) {
+            this.burst = burst;
+            return this;
+        }
+
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public Builder adaptiveRate(boolean adaptiveRate) {
+            this.adaptiveRate = adaptiveRate;
+            return this;
+        }
+
+        public Builder minRequestsPerSecond(double minRequestsPerSecond) {
+            this.minRequestsPerSecond = minRequestsPerSecond;
+            return this;
+        }
+
+        public Builder maxRequestsPerSecond(double maxRequestsPerSecond) {
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+            return this;
+        }
+
+        public Builder seenFilterType(SeenFilterType seenFilterType) {
+            this.seenFilterType = seenFilterType;
+            return this;
+        }
+
+        public Builder expectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+            return this;
+        }
+
+        public Builder falsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        public Builder seenFilterPath(String seenFilterPath) {
+            this.seenFilterPath = seenFilterPath;
+            return this;
+        }
+
+        public Builder dedupLinks(boolean dedupLinks) {
+            this.dedupLinks = dedupLinks;
+            return this;
+        }
+
+        public Builder frontierPath(String frontierPath) {
+            this.frontierPath = frontierPath;
+            return this;
+        }
+
+        public Builder hotWindow(int hotWindow) {
+            this.hotWindow = hotWindow;
+            return this;
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        public Builder checkpointInterval(long checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        public Builder crawlPolicy(CrawlPolicy crawlPolicy) {
+            this.crawlPolicy = crawlPolicy;
+            return this;
+        }
+
+        public Builder hostFairness(boolean hostFairness) {
+            this.hostFairness = hostFairness;
+            return this;
+        }
+
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public Builder maxBodySize(long maxBodySize) {
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+
+        public Builder cachePath(String cachePath) {
+            this.cachePath = cachePath;
+            return this;
+        }
+
+        public Builder cacheMaxBytes(long cacheMaxBytes) {
+            this.cacheMaxBytes = cacheMaxBytes;
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder metricsInterval(long metricsInterval) {
+            this.metricsInterval = metricsInterval;
+            return this;
+        }
+
+        public Builder accessLogPath(String accessLogPath) {
+            this.accessLogPath = accessLogPath;
+            return this;
+        }
+
+        public Builder accessLogSampleRate(double accessLogSampleRate) {
+            this.accessLogSampleRate = accessLogSampleRate;
+            return this;
+        }
+
+        public Builder accessLogMaxFileSize(long accessLogMaxFileSize) {
+            this.accessLogMaxFileSize = accessLogMaxFileSize;
+            return this;
+        }
+
+        public Builder accessLogMaxFiles(int accessLogMaxFiles) {
+            this.accessLogMaxFiles = accessLogMaxFiles;
+            return this;
+        }
+
+        public Builder accessLogBufferSize(int accessLogBufferSize) {
+            this.accessLogBufferSize = accessLogBufferSize;
+            return this;
+        }
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder retryBaseDelay(long retryBaseDelay) {
+            this.retryBaseDelay = retryBaseDelay;
+            return this;
+        }
+
+        public Builder retryMaxDelay(long retryMaxDelay) {
+            this.retryMaxDelay = retryMaxDelay;
+            return this;
+        }
+
+        public Builder retryBudgetRatio(double retryBudgetRatio) {
+            this.retryBudgetRatio = retryBudgetRatio;
+            return this;
+        }
+
+        public Builder retryBudgetReserve(int retryBudgetReserve) {
+            this.retryBudgetReserve = retryBudgetReserve;
+            return this;
+        }
+
+        public Builder circuitBreaker(boolean circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        public Builder breakerFailureRate(double breakerFailureRate) {
+            this.breakerFailureRate = breakerFailureRate;
+            return this;
+        }
+
+        public Builder breakerSlowCallDuration(long breakerSlowCallDuration) {
+            this.breakerSlowCallDuration = breakerSlowCallDuration;
+            return this;
+        }
+
+        public Builder breakerSlowCallRate(double breakerSlowCallRate) {
+            this.breakerSlowCallRate = breakerSlowCallRate;
+            return this;
+        }
+
+        public Builder breakerWindowSize(int breakerWindowSize) {
+            this.breakerWindowSize = breakerWindowSize;
+            return this;
+        }
+
+        public Builder breakerMinimumCalls(int breakerMinimumCalls) {
+            this.breakerMinimumCalls = breakerMinimumCalls;
+            return this;
+        }
+
+        public Builder breakerOpenDuration(long breakerOpenDuration) {
+            this.breakerOpenDuration = breakerOpenDuration;
+            return this;
+        }
+
+        public Builder breakerProbes(int breakerProbes) {
+            this.breakerProbes = breakerProbes;
+            return this;
+        }
+
+        public Builder breakerMaxParked(int breakerMaxParked) {
+            this.breakerMaxParked = breakerMaxParked;
+            return this;
+        }
+
+        public Builder breakerMaxHalfOpenFailures(int breakerMaxHalfOpenFailures) {
+            this.breakerMaxHalfOpenFailures = breakerMaxHalfOpenFailures;
+            return this;
+        }
+
+        public Builder dispatchWorkers(int dispatchWorkers) {
+            this.dispatchWorkers = dispatchWorkers;
+            return this;
+        }
+
+        public Builder handlerThreads(int handlerThreads) {
+            this.handlerThreads = handlerThreads;
+            return this;
+        }
+
+        public Builder handlerQueueSize(int handlerQueueSize) {
+            this.handlerQueueSize = handlerQueueSize;
+            return this;
+        }
+
+        public Builder frontierHighWater(long frontierHighWater) {
+            this.frontierHighWater = frontierHighWater;
+            return this;
+        }
+
+        public Builder frontierLowWater(long frontierLowWater) {
+            this.frontierLowWater = frontierLowWater;
+            return this;
+        }
+
+        public LoaderSettings build() {
+            LoaderSettings settings = new LoaderSettings();
+            settings.pauseRequest = pauseRequest;
+            settings.limitRequest = limitRequest;
+            settings.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+            settings.keepAliveTime = keepAliveTime;
+            settings.connectTimeout = connectTimeout;
+            settings.preferHttp2 = preferHttp2;
+            // without an explicit rate the legacy "limitRequest per pauseRequest ms" pair defines it
+            settings.requestsPerSecond = requestsPerSecond > 0 || pauseRequest <= 0
+                  ? requestsPerSecond
+                  : Math.max(1, limitRequest) * 1000.0 / pauseRequest;
+            settings.burst = burst > 0 ? burst : Math.max(1, limitRequest);
+            settings.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+            settings.adaptiveRate = adaptiveRate;
+            settings.minRequestsPerSecond = minRequestsPerSecond;
+            settings.maxRequestsPerSecond = maxRequestsPerSecond;
+            settings.seenFilterType = seenFilterType;
+            settings.expectedInsertions = expectedInsertions;
+            settings.falsePositiveRate = falsePositiveRate;
+            settings.seenFilterPath = seenFilterPath;
+            settings.dedupLinks = dedupLinks;
+            settings.frontierPath = frontierPath;
+            settings.hotWindow = hotWindow;
+            settings.segmentSize = segmentSize;
+            settings.checkpointInterval = checkpointInterval;
+            settings.crawlPolicy = crawlPolicy;
+            settings.hostFairness = hostFairness;
+            settings.compression = compression;
+            settings.maxBodySize = maxBodySize;
+            settings.cachePath = cachePath;
+            settings.cacheMaxBytes = cacheMaxBytes;
+            settings.name = name;
+            settings.metricsInterval = metricsInterval;
+            settings.accessLogPath = accessLogPath;
+            settings.accessLogSampleRate = accessLogSampleRate;
+            settings.accessLogMaxFileSize = accessLogMaxFileSize;
+            settings.accessLogMaxFiles = accessLogMaxFiles;
+            settings.accessLogBufferSize = Math.max(2, accessLogBufferSize);
+            settings.maxRetries = Math.max(0, maxRetries);
+            settings.retryBaseDelay = retryBaseDelay;
+            settings.retryMaxDelay = retryMaxDelay;
+            settings.retryBudgetRatio = retryBudgetRatio;
+            settings.retryBudgetReserve = retryBudgetReserve;
+            settings.circuitBreaker = circuitBreaker;
+            settings.breakerFailureRate = breakerFailureRate;
+            settings.breakerSlowCallDuration = breakerSlowCallDuration;
+            settings.breakerSlowCallRate = breakerSlowCallRate;
+            settings.breakerWindowSize = breakerWindowSize;
+            settings.breakerMinimumCalls = breakerMinimumCalls;
+            settings.breakerOpenDuration = breakerOpenDuration;
+            settings.breakerProbes = breakerProbes;
+            settings.breakerMaxParked = Math.max(1, breakerMaxParked);
+            settings.breakerMaxHalfOpenFailures = Math.max(1, breakerMaxHalfOpenFailures);
+            settings.dispatchWorkers = Math.max(1, dispatchWorkers);
+            settings.handlerThreads = Math.max(1, handlerThreads);
+            settings.handlerQueueSize = Math.max(1, handlerQueueSize);
+            settings.frontierHighWater = frontierHighWater;
+            settings.frontierLowWater = frontierLowWater;
+            return settings;
+        }
+    }
+}
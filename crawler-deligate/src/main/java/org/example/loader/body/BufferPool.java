@@ -0,0 +1,72 @@
+package org.example.loader.body;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of byte arrays in power of two size classes. Arrays larger than the
+ * biggest class are allocated on demand and left to the garbage collector.
+ */
+public class BufferPool {
+
+    public static final int MIN_BUFFER_SIZE = 1 << 12;
+    public static final int MAX_BUFFER_SIZE = 1 << 22;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    private static final int MAX_SHIFT = Integer.numberOfTrailingZeros(MAX_BUFFER_SIZE);
+
+    private final BlockingQueue<byte[]>[] classes;
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    public BufferPool() {
+        this(64);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(int buffersPerClass) {
+        classes = new BlockingQueue[MAX_SHIFT - MIN_SHIFT + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ArrayBlockingQueue<>(Math.max(1, buffersPerClass));
+        }
+    }
+
+    public byte[] acquire(int minSize) {
+        if (minSize > MAX_BUFFER_SIZE) {
+            allocated.increment();
+            return new byte[minSize];
+        }
+        int index = classIndex(minSize);
+        byte[] buffer = classes[index].poll();
+        if (buffer != null) {
+            reused.increment();
+            return buffer;
+        }
+        allocated.increment();
+        return new byte[1 << (index + MIN_SHIFT)];
+    }
+
+    public void release(byte[] buffer) {
+        int size = buffer.length;
+        if (size < MIN_BUFFER_SIZE || size > MAX_BUFFER_SIZE || Integer.bitCount(size) != 1) {
+            return;
+        }
+        classes[Integer.numberOfTrailingZeros(size) - MIN_SHIFT].offer(buffer);
+    }
+
+    public long allocated() {
+        return allocated.sum();
+    }
+
+    public long reused() {
+        return reused.sum();
+    }
+
+    private static int classIndex(int size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.loader.body;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public final class ContentEncoding {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Wraps {@code in} with a decoder for every coding of a Content-Encoding
+     * header, the last applied coding is removed first.
+     */
+    public static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (StringUtils.isBlank(contentEncoding)) {
+            return in;
+        }
+        String[] codings = contentEncoding.split(",");
+        InputStream decoded = in;
+        for (int i = codings.length - 1; i >= 0; i--) {
+            decoded = decodeOne(decoded, codings[i].trim().toLowerCase());
+        }
+        return decoded;
+    }
+
+    private static InputStream decodeOne(InputStream in, String coding) throws IOException {
+        return switch (coding) {
+            case "", "identity" -> in;
+            case "gzip", "x-gzip" -> new GZIPInputStream(in, BUFFER_SIZE);
+            case "deflate" -> inflate(in);
+            default -> throw new IOException("Unsupported content encoding " + coding);
+        };
+    }
+
+    // "deflate" is meant to be zlib wrapped, but some servers send a raw stream
+    private static InputStream inflate(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        byte[] header = pushback.readNBytes(2);
+        pushback.unread(header);
+        boolean zlib = header.length == 2
+              && (header[0] & 0x0f) == 8
+              && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+        return new InflaterInputStream(pushback, new Inflater(!zlib), BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inf.end();
+            }
+        };
+    }
+}
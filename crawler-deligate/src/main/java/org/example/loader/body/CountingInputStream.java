@@ -0,0 +1,67 @@
+package org.example.loader.body;
+
+import org.example.loader.exceptions.BodyTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read through it and fails once more than {@code limit}
+ * bytes were read.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public CountingInputStream(InputStream in) {
+        this(in, Long.MAX_VALUE);
+    }
+
+    public CountingInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit <= 0 ? Long.MAX_VALUE : limit;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            add(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            add(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        add(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void add(long bytes) throws BodyTooLargeException {
+        count += bytes;
+        if (count > limit) {
+            throw new BodyTooLargeException(limit);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.loader.body;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.lang3.StringUtils;
+import org.example.util.JsonUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+
+/**
+ * Raw bytes of a response, decoded only when somebody asks for text. The
+ * charset is taken from the byte order mark, then from the Content-Type
+ * header, and falls back to UTF-8.
+ * <p>
+ * A pooled body is returned to its pool when the last reference is released,
+ * after that only an already decoded {@link #text()} is still available. The
+ * body starts with one reference, {@link #retain()} adds one. A body that is
+ * not pooled, or no longer after {@link #detach()}, is left to the garbage
+ * collector.
+ */
+public final class ResponseBody {
+
+    private static final int DEFAULT_CAPACITY = 1 << 13;
+
+    private BufferPool pool;
+    private final int offset;
+    private final int length;
+    private final Charset charset;
+    private final boolean charsetDeclared;
+
+    private volatile byte[] buffer;
+    private volatile String text;
+    private int references = 1;
+
+    private ResponseBody(BufferPool pool, byte[] buffer, int length, String contentType) {
+        this.pool = pool;
+        this.buffer = buffer;
+        Charset bomCharset = null;
+        int bom = 0;
+        if (length >= 3 && (buffer[0] & 0xff) == 0xef && (buffer[1] & 0xff) == 0xbb && (buffer[2] & 0xff) == 0xbf) {
+            bomCharset = StandardCharsets.UTF_8;
+            bom = 3;
+        } else if (length >= 2 && (buffer[0] & 0xff) == 0xfe && (buffer[1] & 0xff) == 0xff) {
+            bomCharset = StandardCharsets.UTF_16BE;
+            bom = 2;
+        } else if (length >= 2 && (buffer[0] & 0xff) == 0xff && (buffer[1] & 0xff) == 0xfe) {
+            bomCharset = StandardCharsets.UTF_16LE;
+            bom = 2;
+        }
+        Charset declared = bomCharset != null ? bomCharset : charsetOf(contentType);
+        this.offset = bom;
+        this.length = length - bom;
+        this.charsetDeclared = declared != null;
+        this.charset = declared != null ? declared : StandardCharsets.UTF_8;
+    }
+
+    public static ResponseBody of(String text) {
+        if (text == null) {
+            return new ResponseBody(null, new byte[0], 0, null);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ResponseBody body = new ResponseBody(null, bytes, bytes.length, "charset=utf-8");
+        body.text = text;
+        return body;
+    }
+
+    public static ResponseBody of(byte[] bytes, String contentType) {
+        return new ResponseBody(null, bytes, bytes.length, contentType);
+    }
+
+    /**
+     * Reads the stream to its end into a buffer from {@code pool}. The stream
+     * is not closed. {@code contentLength} is only a hint, at most one pooled
+     * buffer is taken up front and a longer body grows it as it arrives.
+     */
+    public static ResponseBody read(InputStream in, long contentLength, String contentType, BufferPool pool) throws IOException {
+        int capacity = contentLength > 0 ? (int) Math.min(contentLength, BufferPool.MAX_BUFFER_SIZE) : DEFAULT_CAPACITY;
+        byte[] buffer = pool.acquire(capacity);
+        int length = 0;
+        try {
+            while (true) {
+                if (length == buffer.length) {
+                    byte[] bigger = pool.acquire(grow(length));
+                    System.arraycopy(buffer, 0, bigger, 0, length);
+                    pool.release(buffer);
+                    buffer = bigger;
+                }
+                int read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            pool.release(buffer);
+            throw e;
+        }
+        return new ResponseBody(pool, buffer, length, contentType);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    public boolean isReleased() {
+        return buffer == null;
+    }
+
+    public String text() {
+        String decoded = text;
+        if (decoded == null) {
+            byte[] bytes = bytes();
+            decoded = new String(bytes, offset, length, charset);
+            text = decoded;
+        }
+        return decoded;
+    }
+
+    public InputStream stream() {
+        return new ByteArrayInputStream(bytes(), offset, length);
+    }
+
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes(), offset, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the body as it was received, including a byte order mark.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(bytes(), 0, offset + length);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes(), offset, copy, 0, length);
+        return copy;
+    }
+
+    public JsonNode readJson() {
+        if (text == null && isUnicode()) {
+            return JsonUtils.parseJson(bytes(), offset, length);
+        }
+        return JsonUtils.parseJson(text());
+    }
+
+    public JsonParser jsonParser() {
+        if (text == null && isUnicode()) {
+            return JsonUtils.createParser(bytes(), offset, length);
+        }
+        return JsonUtils.createParser(text());
+    }
+
+    /**
+     * Without a declared charset jsoup looks for a meta tag before it falls
+     * back to UTF-8.
+     */
+    public Document html(String baseUri) {
+        if (text != null) {
+            return Jsoup.parse(text, baseUri);
+        }
+        try {
+            return Jsoup.parse(stream(), charsetDeclared ? charset.name() : null, baseUri);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return false when the body was already released
+     */
+    public synchronized boolean retain() {
+        if (buffer == null) {
+            return false;
+        }
+        references++;
+        return true;
+    }
+
+    /**
+     * Copies a pooled body to the heap and gives its buffer back right away,
+     * the body then stays readable however long it is kept.
+     */
+    public void detach() {
+        byte[] pooled;
+        BufferPool owner;
+        synchronized (this) {
+            if (pool == null || buffer == null) {
+                return;
+            }
+            pooled = buffer;
+            owner = pool;
+            buffer = Arrays.copyOf(pooled, offset + length);
+            pool = null;
+        }
+        owner.release(pooled);
+    }
+
+    public void release() {
+        byte[] current;
+        BufferPool owner;
+        synchronized (this) {
+            if (pool == null || buffer == null || --references > 0) {
+                return;
+            }
+            current = buffer;
+            owner = pool;
+            buffer = null;
+        }
+        owner.release(current);
+    }
+
+    private byte[] bytes() {
+        byte[] current = buffer;
+        if (current == null) {
+            throw new IllegalStateException("Response body was already released");
+        }
+        return current;
+    }
+
+    // Jackson detects UTF-8, UTF-16 and UTF-32 from the bytes on its own
+    private boolean isUnicode() {
+        return charset.name().startsWith("UTF-");
+    }
+
+    private static int grow(int length) {
+        return length >= Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE - 8 : length * 2;
+    }
+
+    static Charset charsetOf(String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (StringUtils.startsWithIgnoreCase(trimmed, "charset=")) {
+                String name = StringUtils.strip(trimmed.substring("charset=".length()).trim(), "\"'");
+                try {
+                    return Charset.forName(name);
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
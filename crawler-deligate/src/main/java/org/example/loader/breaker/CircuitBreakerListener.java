@@ -0,0 +1,7 @@
+package org.example.loader.breaker;
+
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    void onStateChange(CircuitStateEvent event);
+}
@@ -0,0 +1,13 @@
+package org.example.loader.breaker;
+
+public record CircuitBreakerSettings(boolean enabled,
+                                     double failureRate,
+                                     long slowCallDuration,
+                                     double slowCallRate,
+                                     int windowSize,
+                                     int minimumCalls,
+                                     long openDuration,
+                                     int probes,
+                                     int maxParked,
+                                     int maxHalfOpenFailures) {
+}
@@ -0,0 +1,183 @@
+package org.example.loader.breaker;
+
+import org.example.loader.events.LoaderTask;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Circuit breakers by host. Tasks of a host whose circuit does not let them
+ * through are parked here and handed back to {@code requeue} when it goes
+ * half-open (as many as there are probes) or closes (all of them).
+ * <p>
+ * At most {@code maxParked} tasks wait per host, further ones go to
+ * {@code reject}. So do all parked tasks of a host whose circuit failed
+ * {@code maxHalfOpenFailures} half-open rounds in a row.
+ */
+public class CircuitBreakers {
+    private static final Logger log = getLogger(CircuitBreakers.class);
+
+    private final CircuitBreakerSettings settings;
+    private final Consumer<LoaderTask> requeue;
+    private final Consumer<LoaderTask> reject;
+    private final Map<String, HostCircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Deque<LoaderTask>> parked = new ConcurrentHashMap<>();
+    private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong parkedCount = new AtomicLong();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreakers(CircuitBreakerSettings settings, Consumer<LoaderTask> requeue, Consumer<LoaderTask> reject) {
+        this.settings = settings;
+        this.requeue = requeue;
+        this.reject = reject;
+    }
+
+    public void addListener(CircuitBreakerListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return false when the task was parked or rejected instead
+     */
+    public boolean tryAcquire(LoaderTask task) {
+        String host = task.getLink().getHost();
+        if (breaker(host).tryAcquire()) {
+            return true;
+        }
+        Deque<LoaderTask> queue = parked.computeIfAbsent(host, h -> new ArrayDeque<>());
+        synchronized (queue) {
+            if (queue.size() < settings.maxParked()) {
+                queue.addLast(task);
+                parkedCount.incrementAndGet();
+                return false;
+            }
+        }
+        reject.accept(task);
+        return false;
+    }
+
+    public void onResponse(String host, int statusCode, long latencyNanos) {
+        CircuitStateEvent event = breaker(host).onResponse(statusCode, latencyNanos, System.nanoTime());
+        if (event != null) {
+            changed(event);
+        }
+    }
+
+    /**
+     * Called periodically to move open circuits on and to pick up tasks
+     * parked while their circuit was already closing.
+     */
+    public void tick() {
+        long now = System.nanoTime();
+        for (HostCircuitBreaker breaker : breakers.values()) {
+            CircuitStateEvent event = breaker.tick(now);
+            if (event != null) {
+                changed(event);
+            } else if (breaker.state() == CircuitState.CLOSED) {
+                unpark(breaker.host(), Integer.MAX_VALUE);
+            } else {
+                unpark(breaker.host(), breaker.probesLeft());
+            }
+        }
+    }
+
+    public CircuitState state(String host) {
+        HostCircuitBreaker breaker = breakers.get(host);
+        return breaker == null ? CircuitState.CLOSED : breaker.state();
+    }
+
+    public long openCircuits() {
+        return breakers.values().stream().filter(breaker -> breaker.state() != CircuitState.CLOSED).count();
+    }
+
+    public long opened() {
+        return opened.sum();
+    }
+
+    public long parked() {
+        return parkedCount.get();
+    }
+
+    /**
+     * @return all parked tasks, the caller owns them afterwards
+     */
+    public List<LoaderTask> drain() {
+        List<LoaderTask> tasks = new ArrayList<>();
+        for (Deque<LoaderTask> queue : parked.values()) {
+            synchronized (queue) {
+                tasks.addAll(queue);
+                queue.clear();
+            }
+        }
+        parkedCount.addAndGet(-tasks.size());
+        return tasks;
+    }
+
+    private void changed(CircuitStateEvent event) {
+        switch (event.to()) {
+            case OPEN -> {
+                opened.increment();
+                log.warn("Circuit of {} opened, failure rate {}, slow call rate {}", event.host(),
+                      event.failureRate(), event.slowCallRate());
+                int failures = breaker(event.host()).halfOpenFailures();
+                if (failures >= settings.maxHalfOpenFailures()) {
+                    List<LoaderTask> tasks = take(event.host(), Integer.MAX_VALUE);
+                    if (!tasks.isEmpty()) {
+                        log.warn("Circuit of {} failed {} half-open rounds, giving up {} parked tasks", event.host(),
+                              failures, tasks.size());
+                    }
+                    tasks.forEach(reject);
+                }
+            }
+            case HALF_OPEN -> {
+                log.info("Circuit of {} half-open", event.host());
+                unpark(event.host(), Math.max(1, settings.probes()));
+            }
+            case CLOSED -> {
+                log.info("Circuit of {} closed", event.host());
+                unpark(event.host(), Integer.MAX_VALUE);
+            }
+        }
+        for (CircuitBreakerListener listener : listeners) {
+            try {
+                listener.onStateChange(event);
+            } catch (RuntimeException e) {
+                log.warn("Circuit breaker listener failed", e);
+            }
+        }
+    }
+
+    private void unpark(String host, int limit) {
+        take(host, limit).forEach(requeue);
+    }
+
+    private List<LoaderTask> take(String host, int limit) {
+        Deque<LoaderTask> queue = parked.get(host);
+        if (queue == null) {
+            return List.of();
+        }
+        List<LoaderTask> tasks = new ArrayList<>();
+        synchronized (queue) {
+            while (tasks.size() < limit && !queue.isEmpty()) {
+                tasks.add(queue.pollFirst());
+            }
+        }
+        parkedCount.addAndGet(-tasks.size());
+        return tasks;
+    }
+
+    private HostCircuitBreaker breaker(String host) {
+        return breakers.computeIfAbsent(host, h -> new HostCircuitBreaker(h, settings));
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.loader.breaker;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
@@ -0,0 +1,4 @@
+package org.example.loader.breaker;
+
+public record CircuitStateEvent(String host, CircuitState from, CircuitState to, double failureRate, double slowCallRate) {
+}
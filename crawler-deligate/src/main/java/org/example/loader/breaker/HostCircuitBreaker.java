@@ -0,0 +1,183 @@
+package org.example.loader.breaker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit of one host over the outcomes of its last {@code windowSize}
+ * responses. It opens when the share of failed or slow responses reaches its
+ * threshold, after {@code openDuration} lets {@code probes} requests through
+ * and closes again only when all of them succeed.
+ */
+public class HostCircuitBreaker {
+
+    private final String host;
+    private final CircuitBreakerSettings settings;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final boolean[] failed;
+    private final boolean[] slow;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesLeft;
+    private int probesPassed;
+    private int halfOpenFailures;
+
+    public HostCircuitBreaker(String host, CircuitBreakerSettings settings) {
+        this.host = host;
+        this.settings = settings;
+        this.slowCallNanos = settings.slowCallDuration() > 0 ? TimeUnit.MILLISECONDS.toNanos(settings.slowCallDuration()) : Long.MAX_VALUE;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(settings.openDuration());
+        int size = Math.max(1, settings.windowSize());
+        this.failed = new boolean[size];
+        this.slow = new boolean[size];
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public synchronized CircuitState state() {
+        return state;
+    }
+
+    /**
+     * @return whether a request may be sent now, in half-open state this
+     * takes one of the probes
+     */
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probesLeft > 0) {
+                    probesLeft--;
+                    yield true;
+                }
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Moves an open circuit whose wait is over to half-open. A half-open
+     * circuit whose probes never came back gets a new set.
+     *
+     * @return the state change or null
+     */
+    public synchronized CircuitStateEvent tick(long now) {
+        if (now - openedAt < openNanos) {
+            return null;
+        }
+        if (state == CircuitState.OPEN) {
+            return halfOpen(now);
+        }
+        if (state == CircuitState.HALF_OPEN && probesLeft == 0) {
+            probesLeft = Math.max(1, settings.probes()) - probesPassed;
+            openedAt = now;
+        }
+        return null;
+    }
+
+    /**
+     * @return the state change or null
+     */
+    public synchronized CircuitStateEvent onResponse(int statusCode, long latencyNanos, long now) {
+        boolean failure = isFailure(statusCode);
+        boolean slowCall = latencyNanos >= slowCallNanos;
+        switch (state) {
+            case CLOSED -> {
+                record(failure, slowCall);
+                if (calls >= Math.max(1, settings.minimumCalls()) && (failureRate() >= settings.failureRate()
+                      || (slowCallNanos != Long.MAX_VALUE && slowCallRate() >= settings.slowCallRate()))) {
+                    return open(now);
+                }
+            }
+            case HALF_OPEN -> {
+                if (failure || slowCall) {
+                    halfOpenFailures++;
+                    return open(now);
+                }
+                if (++probesPassed >= Math.max(1, settings.probes())) {
+                    return close();
+                }
+            }
+            case OPEN -> {
+                // late responses of requests sent before the circuit opened
+            }
+        }
+        return null;
+    }
+
+    public synchronized int probesLeft() {
+        return state == CircuitState.HALF_OPEN ? probesLeft : 0;
+    }
+
+    /**
+     * @return half-open rounds in a row that opened the circuit again
+     */
+    public synchronized int halfOpenFailures() {
+        return halfOpenFailures;
+    }
+
+    public synchronized double failureRate() {
+        return calls == 0 ? 0.0 : (double) failures / calls;
+    }
+
+    public synchronized double slowCallRate() {
+        return calls == 0 ? 0.0 : (double) slowCalls / calls;
+    }
+
+    static boolean isFailure(int statusCode) {
+        return statusCode == 0 || statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (calls == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private CircuitStateEvent open(long now) {
+        CircuitStateEvent event = new CircuitStateEvent(host, state, CircuitState.OPEN, failureRate(), slowCallRate());
+        state = CircuitState.OPEN;
+        openedAt = now;
+        probesLeft = 0;
+        probesPassed = 0;
+        return event;
+    }
+
+    private CircuitStateEvent halfOpen(long now) {
+        CircuitStateEvent event = new CircuitStateEvent(host, state, CircuitState.HALF_OPEN, failureRate(), slowCallRate());
+        state = CircuitState.HALF_OPEN;
+        openedAt = now;
+        probesLeft = Math.max(1, settings.probes());
+        probesPassed = 0;
+        return event;
+    }
+
+    private CircuitStateEvent close() {
+        CircuitStateEvent event = new CircuitStateEvent(host, state, CircuitState.CLOSED, failureRate(), slowCallRate());
+        state = CircuitState.CLOSED;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        next = 0;
+        probesLeft = 0;
+        probesPassed = 0;
+        halfOpenFailures = 0;
+        return event;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.loader.cache;
+
+import org.example.model.ModelConstants;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Validators and freshness of one cached response. {@code maxAge} is in
+ * milliseconds, a negative value means the entry always has to be revalidated.
+ */
+public record CacheEntry(String key, long id, String contentType, String etag, String lastModified,
+                         long storedAt, long maxAge, long size) {
+
+    public boolean isFresh(long now) {
+        return maxAge > 0 && now - storedAt < maxAge;
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    public Map<String, List<String>> headers() {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (contentType != null) {
+            headers.put(ModelConstants.CONTENT_TYPE_HEADER, List.of(contentType));
+        }
+        if (etag != null) {
+            headers.put(ModelConstants.ETAG_HEADER, List.of(etag));
+        }
+        if (lastModified != null) {
+            headers.put(ModelConstants.LAST_MODIFIED_HEADER, List.of(lastModified));
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+}
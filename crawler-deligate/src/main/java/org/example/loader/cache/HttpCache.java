@@ -0,0 +1,365 @@
+package org.example.loader.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.example.loader.Link;
+import org.example.loader.body.BufferPool;
+import org.example.loader.body.ResponseBody;
+import org.example.model.ModelConstants;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Size bounded on-disk cache of GET responses. Bodies are stored one file per
+ * entry, the index with the validators is kept in memory in LRU order and
+ * written to the directory by {@link #persist()}.
+ * <p>
+ * A new body always gets a new file. The file of a replaced or evicted entry
+ * is deleted once no reader has it open.
+ */
+public class HttpCache {
+    private static final Logger log = getLogger(HttpCache.class);
+
+    private static final String INDEX_FILE = "index";
+    private static final String BODY_SUFFIX = ".body";
+    private static final int INDEX_MAGIC = 0x48434931;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long nextId;
+    private final Map<Long, Integer> readers = new HashMap<>();
+    private final Set<Long> retired = new HashSet<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HttpCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open http cache in " + directory, e);
+        }
+    }
+
+    public static boolean isCacheable(Link link) {
+        return Link.HttpMethod.GET.getName().equals(link.getMethod()) && link.getBody() == null;
+    }
+
+    public synchronized CacheEntry lookup(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+        }
+        return entry;
+    }
+
+    public ResponseBody read(CacheEntry entry, BufferPool pool) throws IOException {
+        ResponseBody body = readBody(entry, pool);
+        hits.increment();
+        return body;
+    }
+
+    /**
+     * Takes the new freshness from a 304 response and reads the stored body.
+     */
+    public ResponseBody revalidated(CacheEntry entry, Map<String, List<String>> headers, BufferPool pool) throws IOException {
+        CacheEntry refreshed = new CacheEntry(entry.key(), entry.id(), entry.contentType(),
+              StringUtils.defaultIfBlank(first(headers, ModelConstants.ETAG_HEADER), entry.etag()),
+              StringUtils.defaultIfBlank(first(headers, ModelConstants.LAST_MODIFIED_HEADER), entry.lastModified()),
+              System.currentTimeMillis(), maxAge(first(headers, ModelConstants.CACHE_CONTROL_HEADER)), entry.size());
+        synchronized (this) {
+            if (entries.get(entry.key()) == entry) {
+                entries.put(entry.key(), refreshed);
+            }
+        }
+        ResponseBody body = readBody(entry, pool);
+        revalidations.increment();
+        return body;
+    }
+
+    private ResponseBody readBody(CacheEntry entry, BufferPool pool) throws IOException {
+        if (!openReader(entry)) {
+            throw new NoSuchFileException(bodyFile(entry.id()).toString(), null, "Cache entry was replaced");
+        }
+        try (InputStream in = Files.newInputStream(bodyFile(entry.id()))) {
+            return ResponseBody.read(in, entry.size(), entry.contentType(), pool);
+        } catch (IOException e) {
+            remove(entry);
+            throw e;
+        } finally {
+            closeReader(entry.id());
+        }
+    }
+
+    // the body of a replaced entry can still be read until its file is deleted
+    private synchronized boolean openReader(CacheEntry entry) {
+        CacheEntry current = entries.get(entry.key());
+        if ((current == null || current.id() != entry.id()) && !retired.contains(entry.id())) {
+            return false;
+        }
+        readers.merge(entry.id(), 1, Integer::sum);
+        return true;
+    }
+
+    private void closeReader(long id) {
+        synchronized (this) {
+            if (readers.merge(id, -1, Integer::sum) > 0) {
+                return;
+            }
+            readers.remove(id);
+            if (!retired.remove(id)) {
+                return;
+            }
+        }
+        deleteQuietly(bodyFile(id));
+    }
+
+    // with readers left the file is deleted by the last of them
+    private boolean retire(long id) {
+        if (readers.containsKey(id)) {
+            retired.add(id);
+            return false;
+        }
+        return true;
+    }
+
+    public void store(String key, Map<String, List<String>> headers, ResponseBody body) {
+        String cacheControl = first(headers, ModelConstants.CACHE_CONTROL_HEADER);
+        if (StringUtils.containsIgnoreCase(cacheControl, "no-store")) {
+            return;
+        }
+        String etag = first(headers, ModelConstants.ETAG_HEADER);
+        String lastModified = first(headers, ModelConstants.LAST_MODIFIED_HEADER);
+        long maxAge = maxAge(cacheControl);
+        if ((etag == null && lastModified == null && maxAge <= 0) || body.length() > maxBytes) {
+            return;
+        }
+
+        long id;
+        synchronized (this) {
+            id = nextId++;
+        }
+        Path file = bodyFile(id);
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+            body.writeTo(channel);
+            size = channel.size();
+        } catch (IOException e) {
+            log.warn("Cannot cache {}", key, e);
+            deleteQuietly(file);
+            return;
+        }
+
+        CacheEntry entry = new CacheEntry(key, id, first(headers, ModelConstants.CONTENT_TYPE_HEADER), etag, lastModified,
+              System.currentTimeMillis(), maxAge, size);
+        List<CacheEntry> evicted = new ArrayList<>();
+        synchronized (this) {
+            CacheEntry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.size();
+                if (retire(previous.id())) {
+                    evicted.add(previous);
+                }
+            }
+            totalBytes += size;
+            Iterator<CacheEntry> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                CacheEntry candidate = eldest.next();
+                if (candidate == entry) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= candidate.size();
+                if (retire(candidate.id())) {
+                    evicted.add(candidate);
+                }
+                evictions.increment();
+            }
+        }
+        evicted.forEach(old -> deleteQuietly(bodyFile(old.id())));
+    }
+
+    public void remove(CacheEntry entry) {
+        synchronized (this) {
+            CacheEntry current = entries.get(entry.key());
+            if (current == null || current.id() != entry.id()) {
+                return;
+            }
+            entries.remove(entry.key());
+            totalBytes -= current.size();
+            if (!retire(current.id())) {
+                return;
+            }
+        }
+        deleteQuietly(bodyFile(entry.id()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long revalidations() {
+        return revalidations.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public synchronized void persist() {
+        Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeLong(nextId);
+                out.writeInt(entries.size());
+                // eldest first, so the LRU order survives a restart
+                for (CacheEntry entry : entries.values()) {
+                    writeString(out, entry.key());
+                    out.writeLong(entry.id());
+                    writeString(out, entry.contentType());
+                    writeString(out, entry.etag());
+                    writeString(out, entry.lastModified());
+                    out.writeLong(entry.storedAt());
+                    out.writeLong(entry.maxAge());
+                    out.writeLong(entry.size());
+                }
+            }
+            Files.move(tmp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Cannot persist http cache index in {}", directory, e);
+        }
+    }
+
+    private void load() throws IOException {
+        Path index = directory.resolve(INDEX_FILE);
+        if (Files.exists(index)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+                if (in.readInt() != INDEX_MAGIC) {
+                    throw new IOException("Corrupted http cache index " + index);
+                }
+                nextId = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    CacheEntry entry = new CacheEntry(readString(in), in.readLong(), readString(in), readString(in),
+                          readString(in), in.readLong(), in.readLong(), in.readLong());
+                    if (Files.exists(bodyFile(entry.id()))) {
+                        entries.put(entry.key(), entry);
+                        totalBytes += entry.size();
+                    }
+                }
+            }
+        }
+
+        // bodies written after the last persisted index are unknown
+        Set<Path> known = new HashSet<>();
+        entries.values().forEach(entry -> known.add(bodyFile(entry.id())));
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(BODY_SUFFIX))
+                  .filter(file -> !known.contains(file))
+                  .forEach(HttpCache::deleteQuietly);
+        }
+        if (!entries.isEmpty()) {
+            log.info("Opened http cache with {} entries, {} bytes in {}", entries.size(), totalBytes, directory);
+        }
+    }
+
+    private Path bodyFile(long id) {
+        return directory.resolve(Long.toHexString(id) + BODY_SUFFIX);
+    }
+
+    static long maxAge(String cacheControl) {
+        if (StringUtils.isBlank(cacheControl)) {
+            return -1L;
+        }
+        long maxAge = -1L;
+        for (String directive : cacheControl.split(",")) {
+            String trimmed = directive.trim().toLowerCase();
+            if (trimmed.equals("no-cache")) {
+                return -1L;
+            }
+            if (trimmed.startsWith("max-age=")) {
+                try {
+                    maxAge = TimeUnit.SECONDS.toMillis(Long.parseLong(StringUtils.strip(trimmed.substring(8), "\"")));
+                } catch (NumberFormatException e) {
+                    return -1L;
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.getFirst();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.loader.cluster;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Detects the end of a crawl that spans several nodes. A node being idle is
+ * not enough, a batch for it may still be on its way.
+ */
+public interface ClusterCoordinator {
+
+    void join(String node);
+
+    void report(NodeStatus status);
+
+    CompletableFuture<Void> termination();
+}
@@ -0,0 +1,249 @@
+package org.example.loader.cluster;
+
+import lombok.Getter;
+import org.example.loader.Link;
+import org.example.loader.events.AbstractDataLoader;
+import org.example.loader.events.DataLoader;
+import org.example.loader.events.LoaderTask;
+import org.example.loader.events.SuccessEvent;
+import org.example.loader.frontier.TaskRecord;
+import org.example.loader.metrics.LoaderMetrics;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * One node of a distributed crawl. Links of hosts the node owns go to its
+ * loader, links of other hosts are sent to their owner in batches. Every
+ * link is checked against the seen filter of the node owning its host, so
+ * the filters of all nodes together cover the whole crawl.
+ * <p>
+ * Only tasks with a registered handler can move between nodes, tasks with
+ * callbacks stay on the node that created them. A forwarded task is returned
+ * cancelled, like a task skipped as a duplicate.
+ */
+public class ClusterNode implements DataLoader {
+    private static final Logger log = getLogger(ClusterNode.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL = 200L;
+
+    @Getter
+    private final String node;
+    private final AbstractDataLoader loader;
+    private final Partitioner partitioner;
+    private final ClusterTransport transport;
+    private final ClusterCoordinator coordinator;
+    private final int batchSize;
+    private final long flushInterval;
+
+    private final Map<String, List<TaskRecord>> outbound = new HashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ScheduledExecutorService ticker;
+
+    public ClusterNode(String node, AbstractDataLoader loader, Partitioner partitioner, ClusterTransport transport,
+                       ClusterCoordinator coordinator) {
+        this(node, loader, partitioner, transport, coordinator, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public ClusterNode(String node, AbstractDataLoader loader, Partitioner partitioner, ClusterTransport transport,
+                       ClusterCoordinator coordinator, int batchSize, long flushInterval) {
+        this.node = node;
+        this.loader = loader;
+        this.partitioner = partitioner;
+        this.transport = transport;
+        this.coordinator = coordinator;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1L, flushInterval);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("cluster-" + node).factory());
+
+        loader.setFacade(this);
+        loader.setIdleListener(this::report);
+        transport.bind(node, this::receive);
+        coordinator.join(node);
+        coordinator.termination().thenRun(loader::finish);
+    }
+
+    @Override
+    public LoaderTask addTask(Link link) {
+        return loader.addTask(link);
+    }
+
+    @Override
+    public LoaderTask addTask(Link link, String handler) {
+        if (handler == null) {
+            return loader.addTask(link);
+        }
+        String owner = partitioner.owner(link.getHost());
+        if (node.equals(owner)) {
+            return addOwned(link, handler);
+        }
+        List<TaskRecord> batch = null;
+        synchronized (outbound) {
+            List<TaskRecord> pending = outbound.computeIfAbsent(owner, o -> new ArrayList<>());
+            pending.add(new TaskRecord(link, handler));
+            if (pending.size() >= batchSize) {
+                batch = outbound.remove(owner);
+                sent.addAndGet(batch.size());
+            }
+        }
+        if (batch != null) {
+            transport.send(owner, batch);
+        }
+        return forwarded(link);
+    }
+
+    // owners check every routed link against their filter anyway
+    @Override
+    public LoaderTask addNewTask(Link link, String handler) {
+        return handler == null ? loader.addNewTask(link, null) : addTask(link, handler);
+    }
+
+    public long sent() {
+        return sent.get();
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void registerHandler(String name, Consumer<SuccessEvent> handler) {
+        loader.registerHandler(name, handler);
+    }
+
+    @Override
+    public long resume() {
+        return loader.resume();
+    }
+
+    @Override
+    public boolean isSuitable(String value) {
+        return loader.isSuitable(value);
+    }
+
+    @Override
+    public void startUp() {
+        ticker.scheduleWithFixedDelay(this::tick, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        loader.startUp();
+    }
+
+    @Override
+    public void shutDown() {
+        ticker.shutdownNow();
+        loader.shutDown();
+        log.info("Node {}: {} tasks sent, {} received, {} rejected", node, sent(), received(), rejected());
+    }
+
+    @Override
+    public boolean runTask(LoaderTask loaderTask) {
+        return loader.runTask(loaderTask);
+    }
+
+    @Override
+    public boolean isDone() {
+        return loader.isDone();
+    }
+
+    @Override
+    public CompletableFuture<Void> completion() {
+        return loader.completion();
+    }
+
+    @Override
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        return loader.awaitIdle(timeout, unit);
+    }
+
+    @Override
+    public long inFlight() {
+        return loader.inFlight();
+    }
+
+    @Override
+    public LoaderMetrics metrics() {
+        return loader.metrics();
+    }
+
+    private LoaderTask addOwned(Link link, String handler) {
+        // a loader with dedupLinks checks the filter itself
+        if (!loader.isDedupLinks() && !loader.isSuitable(link.normalizedKey())) {
+            return forwarded(link);
+        }
+        return loader.addTask(link, handler);
+    }
+
+    // counted only once the tasks are in flight, a rejected task counts as
+    // received too, or the sent and received counters never meet
+    private void receive(List<TaskRecord> batch) {
+        try {
+            for (TaskRecord record : batch) {
+                try {
+                    addOwned(record.link(), record.handler());
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                    log.error("Node {} rejected [{}] {}", node, record.handler(), record.link().buildUrl(), e);
+                }
+            }
+        } finally {
+            received.addAndGet(batch.size());
+        }
+    }
+
+    private void tick() {
+        try {
+            flush();
+            report();
+        } catch (RuntimeException e) {
+            log.error("Node {} failed to flush", node, e);
+        }
+    }
+
+    private void flush() {
+        Map<String, List<TaskRecord>> batches;
+        synchronized (outbound) {
+            if (outbound.isEmpty()) {
+                return;
+            }
+            batches = new HashMap<>(outbound);
+            outbound.clear();
+            batches.values().forEach(batch -> sent.addAndGet(batch.size()));
+        }
+        batches.forEach(transport::send);
+    }
+
+    // tasks leave the outbound buffer and enter "sent" under one lock, and
+    // "received" is read before the loader, so no task can be missed by both
+    private void report() {
+        NodeStatus status;
+        synchronized (outbound) {
+            long receivedTasks = received.get();
+            boolean idle = outbound.isEmpty() && loader.inFlight() == 0;
+            status = new NodeStatus(node, idle, sent.get(), receivedTasks);
+        }
+        coordinator.report(status);
+    }
+
+    private static LoaderTask forwarded(Link link) {
+        LoaderTask task = new LoaderTask(link);
+        task.cancel(false);
+        return task;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.loader.cluster;
+
+import org.example.loader.frontier.TaskRecord;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of tasks between nodes. Records only hold a link and a
+ * handler name, {@link org.example.loader.frontier.TaskCodec} turns them into
+ * bytes for transports that leave the process.
+ */
+public interface ClusterTransport extends AutoCloseable {
+
+    void bind(String node, Consumer<List<TaskRecord>> receiver);
+
+    void send(String node, List<TaskRecord> batch);
+
+    @Override
+    default void close() {
+    }
+}
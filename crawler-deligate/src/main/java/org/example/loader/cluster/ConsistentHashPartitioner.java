@@ -0,0 +1,47 @@
+package org.example.loader.cluster;
+
+import org.example.util.HashUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Hash ring with {@code virtualNodes} points per node, so adding or removing a
+ * node moves only the hosts of its share of the ring.
+ */
+public class ConsistentHashPartitioner implements Partitioner {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<String> nodes;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashPartitioner(List<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashPartitioner(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Cluster has no nodes");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                ring.put(HashUtils.hash64(node + '#' + i), node);
+            }
+        }
+    }
+
+    @Override
+    public String owner(String host) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(HashUtils.hash64(host));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    @Override
+    public List<String> nodes() {
+        return nodes;
+    }
+}
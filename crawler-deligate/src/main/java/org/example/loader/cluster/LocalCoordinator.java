@@ -0,0 +1,76 @@
+package org.example.loader.cluster;
+
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Coordinator for nodes of one process. The crawl is over when every node
+ * reports idle, all sent tasks were received, and the same counters are seen
+ * in two waves in a row. A wave is over when every node has reported again
+ * since the candidate was taken, so no report that was already stale counts.
+ */
+public class LocalCoordinator implements ClusterCoordinator {
+    private static final Logger log = getLogger(LocalCoordinator.class);
+
+    private final Map<String, NodeStatus> statuses = new HashMap<>();
+    private final CompletableFuture<Void> termination = new CompletableFuture<>();
+    private final Map<String, Long> reports = new HashMap<>();
+    private Map<String, NodeStatus> candidate;
+    private Map<String, Long> candidateReports;
+
+    @Override
+    public synchronized void join(String node) {
+        statuses.put(node, new NodeStatus(node, false, 0L, 0L));
+        reports.put(node, 0L);
+    }
+
+    @Override
+    public synchronized void report(NodeStatus status) {
+        if (termination.isDone() || !statuses.containsKey(status.node())) {
+            return;
+        }
+        statuses.put(status.node(), status);
+        reports.merge(status.node(), 1L, Long::sum);
+        if (!isQuiet() || !statuses.equals(candidate)) {
+            candidate = isQuiet() ? new HashMap<>(statuses) : null;
+            candidateReports = new HashMap<>(reports);
+            return;
+        }
+        if (isWaveOver()) {
+            log.info("Cluster of {} nodes is finished", statuses.size());
+            termination.complete(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> termination() {
+        return termination;
+    }
+
+    private boolean isWaveOver() {
+        for (Map.Entry<String, Long> entry : reports.entrySet()) {
+            if (entry.getValue() <= candidateReports.get(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isQuiet() {
+        long sent = 0L;
+        long received = 0L;
+        for (NodeStatus status : statuses.values()) {
+            if (!status.idle()) {
+                return false;
+            }
+            sent += status.sent();
+            received += status.received();
+        }
+        return sent == received;
+    }
+}
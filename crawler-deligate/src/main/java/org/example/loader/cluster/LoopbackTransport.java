@@ -0,0 +1,49 @@
+package org.example.loader.cluster;
+
+import org.example.loader.frontier.TaskRecord;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Transport between nodes of one process. Batches are delivered
+ * asynchronously like they would be over a network.
+ */
+public class LoopbackTransport implements ClusterTransport {
+    private static final Logger log = getLogger(LoopbackTransport.class);
+
+    private final Map<String, Consumer<List<TaskRecord>>> receivers = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("loopback-", 0).factory());
+
+    @Override
+    public void bind(String node, Consumer<List<TaskRecord>> receiver) {
+        receivers.put(node, receiver);
+    }
+
+    @Override
+    public void send(String node, List<TaskRecord> batch) {
+        Consumer<List<TaskRecord>> receiver = receivers.get(node);
+        if (receiver == null) {
+            throw new IllegalStateException("Node " + node + " is not bound");
+        }
+        executor.execute(() -> {
+            try {
+                receiver.accept(batch);
+            } catch (RuntimeException e) {
+                log.error("Node {} failed to accept {} tasks", node, batch.size(), e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
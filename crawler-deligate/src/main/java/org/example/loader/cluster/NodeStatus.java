@@ -0,0 +1,8 @@
+package org.example.loader.cluster;
+
+/**
+ * @param sent     tasks handed to the transport for other nodes so far
+ * @param received tasks accepted from other nodes so far
+ */
+public record NodeStatus(String node, boolean idle, long sent, long received) {
+}
@@ -0,0 +1,13 @@
+package org.example.loader.cluster;
+
+import java.util.List;
+
+public interface Partitioner {
+
+    /**
+     * @return id of the node that crawls {@code host}
+     */
+    String owner(String host);
+
+    List<String> nodes();
+}
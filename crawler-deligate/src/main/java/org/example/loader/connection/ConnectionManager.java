@@ -0,0 +1,218 @@
+package org.example.loader.connection;
+
+import org.example.loader.LoaderSettings;
+import org.example.loader.metrics.LoaderMetrics;
+
+import java.net.CookieHandler;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Long-lived {@link HttpClient} of a loader plus per-host connection limits.
+ * A loader holds at most {@code maxConnectionsPerHost} leases per host, host
+ * entries idle for {@code keepAliveTime} are dropped.
+ * <p>
+ * The JDK pools themselves are process-wide and only configurable at JVM
+ * start, for example {@code -Djdk.httpclient.keepalive.timeout=30} and
+ * {@code -Djdk.httpclient.connectionPoolSize=...} for the {@link HttpClient}
+ * and {@code -Dhttp.keepAlive.time.server=30} and
+ * {@code -Dhttp.maxConnections=...} for {@code HttpURLConnection}.
+ */
+public class ConnectionManager implements AutoCloseable {
+    private static final long SHUTDOWN_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private final LoaderSettings settings;
+    private final Executor executor;
+    private final LoaderMetrics metrics;
+    private final CookieHandler cookieHandler;
+    private final Map<String, HostConnections> hosts = new ConcurrentHashMap<>();
+
+    private volatile HttpClient client;
+    private volatile boolean closed;
+
+    public ConnectionManager(LoaderSettings settings, Executor executor) {
+        this(settings, executor, new LoaderMetrics(settings.getName()));
+    }
+
+    public ConnectionManager(LoaderSettings settings, Executor executor, LoaderMetrics metrics) {
+        this(settings, executor, metrics, null);
+    }
+
+    /**
+     * @param cookieHandler sends and stores the cookies of every request,
+     *                      redirects included, {@code null} for none
+     */
+    public ConnectionManager(LoaderSettings settings, Executor executor, LoaderMetrics metrics, CookieHandler cookieHandler) {
+        this.settings = settings;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.cookieHandler = cookieHandler;
+    }
+
+    public HttpClient client() {
+        HttpClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Connection manager is closed");
+                }
+                current = client;
+                if (current == null) {
+                    HttpClient.Builder builder = HttpClient.newBuilder()
+                          .executor(executor)
+                          .version(settings.isPreferHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                          .connectTimeout(Duration.ofMillis(settings.getConnectTimeout()));
+                    if (cookieHandler != null) {
+                        builder.cookieHandler(cookieHandler);
+                    }
+                    current = builder.build();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return sendAsync(request, handler, Function.identity());
+    }
+
+    /**
+     * The host lease is held until {@code reader} returns, so a streamed body
+     * is consumed on the executor before the connection is given back.
+     */
+    public <T, R> CompletableFuture<R> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                 Function<HttpResponse<T>, R> reader) {
+        HttpClient httpClient = client();
+        return CompletableFuture.supplyAsync(() -> acquireUninterruptibly(request.uri()), executor)
+              .thenCompose(lease -> httpClient.sendAsync(request, firstByteTimed(handler))
+                    .thenApplyAsync(reader, executor)
+                    .whenComplete((result, throwable) -> lease.close()));
+    }
+
+    // the handler is applied once the status line and headers have arrived
+    private <T> HttpResponse.BodyHandler<T> firstByteTimed(HttpResponse.BodyHandler<T> handler) {
+        long start = System.nanoTime();
+        return responseInfo -> {
+            metrics.onFirstByte(System.nanoTime() - start);
+            return handler.apply(responseInfo);
+        };
+    }
+
+    public Lease acquire(URI uri) throws InterruptedException {
+        // registered inside compute, so an idle eviction cannot drop an entry that is being leased
+        HostConnections connections = hosts.compute(hostKey(uri), (host, current) -> {
+            HostConnections next = current == null ? new HostConnections() : current;
+            next.users.incrementAndGet();
+            return next;
+        });
+        try {
+            connections.permits.acquire();
+        } catch (InterruptedException e) {
+            connections.users.decrementAndGet();
+            throw e;
+        }
+        connections.touch();
+        return new Lease(connections);
+    }
+
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (String host : hosts.keySet()) {
+            hosts.computeIfPresent(host, (h, connections) -> connections.idle(now, settings.getKeepAliveTime()) ? null : connections);
+        }
+    }
+
+    public int hosts() {
+        return hosts.size();
+    }
+
+    @Override
+    public void close() {
+        HttpClient current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current = client;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(Duration.ofMillis(SHUTDOWN_TIMEOUT))) {
+                    current.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                current.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Lease acquireUninterruptibly(URI uri) {
+        try {
+            return acquire(uri);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static String hostKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ':' + uri.getPort();
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final HostConnections connections;
+        private boolean released;
+
+        private Lease(HostConnections connections) {
+            this.connections = connections;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            connections.release();
+        }
+    }
+
+    private final class HostConnections {
+        private final Semaphore permits = new Semaphore(settings.getMaxConnectionsPerHost());
+        // leased or waiting for a lease
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        private void release() {
+            touch();
+            permits.release();
+            users.decrementAndGet();
+        }
+
+        private boolean idle(long now, long keepAliveTime) {
+            return users.get() == 0 && now - lastActivity > keepAliveTime;
+        }
+    }
+}
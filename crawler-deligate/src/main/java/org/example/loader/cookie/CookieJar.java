@@ -0,0 +1,307 @@
+package org.example.loader.cookie;
+
+import org.example.model.ModelConstants;
+import org.slf4j.Logger;
+
+import java.net.CookieHandler;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Cookies of a crawl, scoped by domain and path as in RFC 6265 and parsed
+ * with {@link HttpCookie#parse}. Expired cookies are never sent and are
+ * dropped on the next write to their domain.
+ * <p>
+ * Reads are lock-free. Every host with cookies keeps an immutable view of
+ * them with the Cookie header already built, replaced as a whole after a
+ * change to one of the domains it reads from or when one of its cookies
+ * expires. While all cookies of a host have the root path, a request only
+ * reads that header. Path-scoped cookies make the header depend on the
+ * request path, it is built per request then. Past {@link #MAX_VIEWS} hosts
+ * the views are dropped and built again on demand.
+ * <p>
+ * Works as the {@link CookieHandler} of an {@code HttpClient} or through
+ * {@link #header} and {@link #store} for connections without one.
+ */
+public class CookieJar extends CookieHandler {
+    private static final Logger log = getLogger(CookieJar.class);
+
+    public static final int MAX_PER_DOMAIN = 50;
+    public static final int MAX_VIEWS = 10_000;
+
+    private static final Comparator<StoredCookie> SEND_ORDER = Comparator
+          .comparingInt((StoredCookie cookie) -> cookie.path().length()).reversed()
+          .thenComparingLong(StoredCookie::created);
+
+    // immutable lists, replaced as a whole on every change of a domain
+    private final Map<String, List<StoredCookie>> domains = new ConcurrentHashMap<>();
+    private final Map<String, HostView> views = new ConcurrentHashMap<>();
+    // per domain, kept after its cookies are gone so a view built before can never match again
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @return the Cookie header for the request or {@code null} without
+     * matching cookies
+     */
+    public String header(boolean secure, String host, String path) {
+        HostView view = view(host.toLowerCase(Locale.ROOT));
+        return view.header(secure, path == null || path.isEmpty() ? "/" : path);
+    }
+
+    public String header(URI uri) {
+        if (uri.getHost() == null) {
+            return null;
+        }
+        return header("https".equalsIgnoreCase(uri.getScheme()), uri.getHost(), uri.getRawPath());
+    }
+
+    /**
+     * Takes the Set-Cookie headers of a response to {@code uri}.
+     */
+    public void store(URI uri, List<String> setCookieHeaders) {
+        if (uri.getHost() == null) {
+            return;
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        String defaultPath = defaultPath(uri.getRawPath());
+        for (String header : setCookieHeaders) {
+            List<HttpCookie> parsed;
+            try {
+                parsed = HttpCookie.parse(header);
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring cookie from {}: {}", host, header);
+                continue;
+            }
+            for (HttpCookie cookie : parsed) {
+                store(host, defaultPath, cookie);
+            }
+        }
+    }
+
+    /**
+     * Adds a cookie for the whole host, like the cookies set on a link.
+     */
+    public void add(String host, String name, String value) {
+        HttpCookie cookie = new HttpCookie(name, value);
+        cookie.setPath("/");
+        store(host.toLowerCase(Locale.ROOT), "/", cookie);
+    }
+
+    public List<HttpCookie> cookies(String host) {
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (StoredCookie cookie : view(host.toLowerCase(Locale.ROOT)).cookies()) {
+            cookies.add(cookie.toHttpCookie());
+        }
+        return cookies;
+    }
+
+    public int size() {
+        return domains.values().stream().mapToInt(List::size).sum();
+    }
+
+    int views() {
+        return views.size();
+    }
+
+    public void clear() {
+        domains.clear();
+        views.clear();
+        versions.replaceAll((domain, version) -> version + 1);
+    }
+
+    @Override
+    public Map<String, List<String>> get(URI uri, Map<String, List<String>> requestHeaders) {
+        String header = header(uri);
+        return header == null ? Collections.emptyMap() : Map.of(ModelConstants.COOKIE_HEADER, List.of(header));
+    }
+
+    @Override
+    public void put(URI uri, Map<String, List<String>> responseHeaders) {
+        responseHeaders.forEach((name, values) -> {
+            if (ModelConstants.SET_COOKIE_HEADER.equalsIgnoreCase(name)) {
+                store(uri, values);
+            }
+        });
+    }
+
+    private void store(String host, String defaultPath, HttpCookie cookie) {
+        boolean hostOnly = cookie.getDomain() == null || cookie.getDomain().isBlank();
+        String domain = hostOnly ? host : stripDot(cookie.getDomain().toLowerCase(Locale.ROOT));
+        // no public suffix list, a bare top level domain is the one case rejected
+        if (!hostOnly && (!domainMatches(host, domain) || domain.indexOf('.') < 0)) {
+            log.debug("Rejecting cookie {} for domain {} from {}", cookie.getName(), domain, host);
+            return;
+        }
+        String path = cookie.getPath() == null || !cookie.getPath().startsWith("/") ? defaultPath : cookie.getPath();
+        long now = System.currentTimeMillis();
+        long maxAge = cookie.getMaxAge();
+        boolean remove = maxAge == 0 || maxAge < -1;
+        long expiresAt = maxAge > 0 ? now + maxAge * 1000L : -1L;
+        StoredCookie stored = new StoredCookie(cookie.getName(), cookie.getValue(), domain, hostOnly, path,
+              cookie.getSecure(), expiresAt, sequence.incrementAndGet());
+
+        boolean[] changed = {false};
+        domains.compute(domain, (d, current) -> {
+            List<StoredCookie> next = new ArrayList<>(current == null ? 1 : current.size() + 1);
+            StoredCookie replaced = null;
+            if (current != null) {
+                for (StoredCookie existing : current) {
+                    if (existing.sameIdentity(stored)) {
+                        replaced = existing;
+                    } else if (existing.expired(now)) {
+                        changed[0] = true;
+                    } else {
+                        next.add(existing);
+                    }
+                }
+            }
+            if (remove) {
+                changed[0] |= replaced != null;
+            } else {
+                // a replaced cookie keeps its creation order
+                next.add(replaced == null ? stored : stored.withCreated(replaced.created()));
+                changed[0] |= replaced == null || !replaced.sameContent(stored);
+            }
+            if (next.size() > MAX_PER_DOMAIN) {
+                next.sort(Comparator.comparingLong(StoredCookie::created));
+                next = new ArrayList<>(next.subList(next.size() - MAX_PER_DOMAIN, next.size()));
+            }
+            return next.isEmpty() ? null : List.copyOf(next);
+        });
+        if (changed[0]) {
+            versions.merge(domain, 1L, Long::sum);
+        }
+    }
+
+    private HostView view(String host) {
+        HostView view = views.get(host);
+        if (view != null && view.isCurrent(versions) && System.currentTimeMillis() < view.nextExpiry()) {
+            return view;
+        }
+        List<String> chain = new ArrayList<>();
+        for (String domain = host; domain != null; domain = parent(domain)) {
+            chain.add(domain);
+        }
+        // a change while building leaves the view behind the versions, so the next read rebuilds it
+        long[] current = new long[chain.size()];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = versions.getOrDefault(chain.get(i), 0L);
+        }
+        long now = System.currentTimeMillis();
+        List<StoredCookie> matching = new ArrayList<>();
+        for (String domain : chain) {
+            List<StoredCookie> cookies = domains.get(domain);
+            if (cookies != null) {
+                for (StoredCookie cookie : cookies) {
+                    if (!cookie.expired(now) && (!cookie.hostOnly() || cookie.domain().equals(host))) {
+                        matching.add(cookie);
+                    }
+                }
+            }
+        }
+        matching.sort(SEND_ORDER);
+        view = HostView.of(chain.toArray(String[]::new), current, matching);
+        // a host without cookies is answered from the domains alone, a view would only grow the map
+        if (matching.isEmpty()) {
+            views.remove(host);
+        } else {
+            if (views.size() >= MAX_VIEWS && !views.containsKey(host)) {
+                views.clear();
+            }
+            views.put(host, view);
+        }
+        return view;
+    }
+
+    static boolean domainMatches(String host, String domain) {
+        return host.equals(domain)
+              || host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.';
+    }
+
+    static boolean pathMatches(String requestPath, String cookiePath) {
+        if (requestPath.equals(cookiePath)) {
+            return true;
+        }
+        return requestPath.startsWith(cookiePath)
+              && (cookiePath.endsWith("/") || requestPath.charAt(cookiePath.length()) == '/');
+    }
+
+    static String defaultPath(String requestPath) {
+        if (requestPath == null || !requestPath.startsWith("/")) {
+            return "/";
+        }
+        int last = requestPath.lastIndexOf('/');
+        return last == 0 ? "/" : requestPath.substring(0, last);
+    }
+
+    private static String parent(String domain) {
+        int dot = domain.indexOf('.');
+        return dot < 0 ? null : domain.substring(dot + 1);
+    }
+
+    private static String stripDot(String domain) {
+        return domain.startsWith(".") ? domain.substring(1) : domain;
+    }
+
+    /**
+     * @param chain    the host and its parent domains
+     * @param versions versions of the chain the view was built from
+     */
+    private record HostView(String[] chain, long[] versions, long nextExpiry, List<StoredCookie> cookies,
+                            boolean rootOnly, String plainHeader, String secureHeader) {
+
+        static HostView of(String[] chain, long[] versions, List<StoredCookie> cookies) {
+            long nextExpiry = Long.MAX_VALUE;
+            boolean rootOnly = true;
+            for (StoredCookie cookie : cookies) {
+                if (cookie.expiresAt() >= 0) {
+                    nextExpiry = Math.min(nextExpiry, cookie.expiresAt());
+                }
+                rootOnly &= cookie.path().equals("/");
+            }
+            List<StoredCookie> list = List.copyOf(cookies);
+            if (!rootOnly) {
+                return new HostView(chain, versions, nextExpiry, list, false, null, null);
+            }
+            return new HostView(chain, versions, nextExpiry, list, true, build(list, false, "/"), build(list, true, "/"));
+        }
+
+        boolean isCurrent(Map<String, Long> current) {
+            for (int i = 0; i < chain.length; i++) {
+                if (current.getOrDefault(chain[i], 0L) != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String header(boolean secure, String path) {
+            if (rootOnly) {
+                return secure ? secureHeader : plainHeader;
+            }
+            return build(cookies, secure, path);
+        }
+
+        private static String build(List<StoredCookie> cookies, boolean secure, String path) {
+            StringBuilder header = null;
+            for (StoredCookie cookie : cookies) {
+                if ((secure || !cookie.secure()) && pathMatches(path, cookie.path())) {
+                    header = header == null ? new StringBuilder() : header.append("; ");
+                    header.append(cookie.name()).append('=').append(cookie.value());
+                }
+            }
+            return header == null ? null : header.toString();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.loader.cookie;
+
+import java.net.HttpCookie;
+import java.util.Objects;
+
+/**
+ * A cookie as kept by the {@link CookieJar}. An {@code expiresAt} of -1
+ * marks a session cookie.
+ */
+record StoredCookie(String name, String value, String domain, boolean hostOnly, String path, boolean secure,
+                    long expiresAt, long created) {
+
+    boolean expired(long now) {
+        return expiresAt >= 0 && now >= expiresAt;
+    }
+
+    // a cookie is replaced by one with the same name, domain and path
+    boolean sameIdentity(StoredCookie other) {
+        return name.equals(other.name) && domain.equals(other.domain) && path.equals(other.path);
+    }
+
+    /**
+     * Views of the jar rebuild themselves when the old expiry passes, so a
+     * cookie that only lives longer now does not need to invalidate them.
+     */
+    boolean sameContent(StoredCookie other) {
+        return Objects.equals(value, other.value) && hostOnly == other.hostOnly && secure == other.secure
+              && (expiresAt < 0 ? other.expiresAt < 0 : other.expiresAt >= expiresAt);
+    }
+
+    StoredCookie withCreated(long created) {
+        return new StoredCookie(name, value, domain, hostOnly, path, secure, expiresAt, created);
+    }
+
+    HttpCookie toHttpCookie() {
+        HttpCookie cookie = new HttpCookie(name, value);
+        cookie.setDomain(domain);
+        cookie.setPath(path);
+        cookie.setSecure(secure);
+        cookie.setMaxAge(expiresAt < 0 ? -1 : Math.max(0, (expiresAt - System.currentTimeMillis()) / 1000L));
+        return cookie;
+    }
+}
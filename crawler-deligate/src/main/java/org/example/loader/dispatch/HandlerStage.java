@@ -0,0 +1,100 @@
+package org.example.loader.dispatch;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Bounded queue between fetching and handling responses, worked off by a
+ * fixed number of handler threads. {@link #submit} blocks while the queue
+ * is full, so fetch threads cannot get ahead of the handlers. Before
+ * {@link #start} work runs on the submitting thread.
+ */
+public class HandlerStage {
+    private static final Logger log = getLogger(HandlerStage.class);
+
+    private final BlockingQueue<Runnable> queue;
+    private final Thread[] workers;
+    private volatile boolean started;
+
+    public HandlerStage(int threads, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.workers = new Thread[Math.max(1, threads)];
+    }
+
+    public void start(String name) {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = Thread.ofVirtual().name(name + "-" + i).start(this::work);
+        }
+        started = true;
+    }
+
+    public void submit(Runnable handler) {
+        if (!started) {
+            handler.run();
+            return;
+        }
+        try {
+            queue.put(handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handler.run();
+        }
+    }
+
+    public int backlog() {
+        return queue.size();
+    }
+
+    public boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    public boolean isHandlerThread() {
+        Thread current = Thread.currentThread();
+        for (Thread worker : workers) {
+            if (worker == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the handler threads.
+     *
+     * @return work that was still queued
+     */
+    public List<Runnable> shutdownNow() {
+        started = false;
+        for (Thread worker : workers) {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+        List<Runnable> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        return pending;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Runnable handler;
+            try {
+                handler = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                handler.run();
+            } catch (RuntimeException e) {
+                log.error("Handler failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.loader.dispatch;
+
+import org.example.loader.events.LoaderTask;
+import org.example.loader.frontier.Frontier;
+import org.example.loader.limit.RateLimiter;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Dispatch workers sharing one frontier. A worker takes a small batch from
+ * the frontier into its own deque, which saves the others a trip through the
+ * frontier lock, and steals from the back of another worker's deque when the
+ * frontier runs dry. Every dispatched task holds a concurrency slot of the
+ * rate limiter, the same as with a single dispatcher. A task whose dispatch
+ * throws gives its slot back and goes to {@code failure}, the worker goes on.
+ * <p>
+ * Once the frontier grows past {@code highWater} tasks, producers of new
+ * tasks wait in {@link #awaitRoom} until fetching has taken it down to
+ * {@code lowWater}.
+ */
+public class WorkStealingDispatcher {
+    private static final Logger log = getLogger(WorkStealingDispatcher.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 4;
+    private static final long POLL_TIMEOUT = 100L;
+    private static final long ROOM_PAUSE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Frontier frontier;
+    private final RateLimiter rateLimiter;
+    private final Consumer<LoaderTask> schedule;
+    private final BiConsumer<LoaderTask, RuntimeException> failure;
+    private final BooleanSupplier active;
+    private final int batchSize;
+    private final Worker[] workers;
+    private final LongAdder stolen = new LongAdder();
+    private final long highWater;
+    private final long lowWater;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile boolean throttled;
+
+    public WorkStealingDispatcher(int workerCount, Frontier frontier, RateLimiter rateLimiter,
+                                  Consumer<LoaderTask> schedule, BooleanSupplier active) {
+        this(workerCount, frontier, rateLimiter, schedule, (task, e) -> task.completeExceptionally(e), active, 0L, 0L);
+    }
+
+    public WorkStealingDispatcher(int workerCount, Frontier frontier, RateLimiter rateLimiter,
+                                  Consumer<LoaderTask> schedule, BiConsumer<LoaderTask, RuntimeException> failure,
+                                  BooleanSupplier active, long highWater, long lowWater) {
+        this.highWater = highWater;
+        this.lowWater = Math.min(lowWater, highWater);
+        this.frontier = frontier;
+        this.rateLimiter = rateLimiter;
+        this.schedule = schedule;
+        this.failure = failure;
+        this.active = active;
+        this.workers = new Worker[Math.max(1, workerCount)];
+        // a single worker takes tasks one by one and keeps the frontier order exact
+        this.batchSize = workers.length == 1 ? 1 : DEFAULT_BATCH_SIZE;
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    public void start(String name) {
+        for (Worker worker : workers) {
+            worker.thread = Thread.ofVirtual().name(name + "-" + worker.index).start(worker);
+        }
+    }
+
+    public void stop() {
+        for (Worker worker : workers) {
+            Thread thread = worker.thread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return tasks taken from the frontier but not dispatched yet
+     */
+    public List<LoaderTask> drain() {
+        List<LoaderTask> tasks = new ArrayList<>();
+        for (Worker worker : workers) {
+            LoaderTask task;
+            while ((task = worker.local.pollFirst()) != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    public int workers() {
+        return workers.length;
+    }
+
+    public long stolen() {
+        return stolen.sum();
+    }
+
+    /**
+     * @return producers waiting for the frontier to drain
+     */
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public long queued() {
+        long queued = 0L;
+        for (Worker worker : workers) {
+            queued += worker.local.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Blocks the calling producer while the frontier is over its high-water
+     * mark, until fetching has taken it down to the low-water mark. A
+     * producer also goes on once {@code stalled} is true, when fetching
+     * waits for the producers themselves.
+     */
+    public void awaitRoom(BooleanSupplier stalled) throws InterruptedException {
+        if (highWater <= 0 || !throttled && frontier.size() < highWater) {
+            return;
+        }
+        if (!throttled) {
+            throttled = true;
+            log.warn("Frontier holds {} tasks, producers wait until it is down to {}", frontier.size(), lowWater);
+        }
+        waiting.incrementAndGet();
+        try {
+            while (frontier.size() > lowWater && active.getAsBoolean() && !stalled.getAsBoolean()) {
+                LockSupport.parkNanos(ROOM_PAUSE);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (throttled && frontier.size() <= lowWater) {
+            throttled = false;
+            log.info("Frontier is down to {} tasks, producers go on", lowWater);
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final Deque<LoaderTask> local = new ConcurrentLinkedDeque<>();
+        private volatile Thread thread;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            while (active.getAsBoolean()) {
+                LoaderTask loaderTask = null;
+                try {
+                    rateLimiter.acquireSlot();
+                    loaderTask = next();
+                    if (loaderTask == null) {
+                        rateLimiter.releaseSlot();
+                        continue;
+                    }
+                    schedule.accept(loaderTask);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    rateLimiter.releaseSlot();
+                    fail(loaderTask, e);
+                }
+            }
+        }
+
+        private void fail(LoaderTask loaderTask, RuntimeException e) {
+            if (loaderTask == null) {
+                log.error("Cannot take a task from the frontier", e);
+                return;
+            }
+            log.error("Cannot dispatch {}", loaderTask.getLink().buildUrl(), e);
+            try {
+                failure.accept(loaderTask, e);
+            } catch (RuntimeException failed) {
+                log.error("Cannot fail {}", loaderTask.getLink().buildUrl(), failed);
+            }
+        }
+
+        private LoaderTask next() throws InterruptedException {
+            LoaderTask loaderTask = local.pollFirst();
+            if (loaderTask != null) {
+                return loaderTask;
+            }
+            loaderTask = frontier.poll();
+            if (loaderTask != null) {
+                refill();
+                return loaderTask;
+            }
+            loaderTask = steal();
+            if (loaderTask != null) {
+                return loaderTask;
+            }
+            return frontier.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+
+        private void refill() {
+            for (int i = 1; i < batchSize; i++) {
+                LoaderTask loaderTask = frontier.poll();
+                if (loaderTask == null) {
+                    return;
+                }
+                local.addLast(loaderTask);
+            }
+        }
+
+        private LoaderTask steal() {
+            if (workers.length == 1) {
+                return null;
+            }
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim == this) {
+                    continue;
+                }
+                LoaderTask loaderTask = victim.local.pollLast();
+                if (loaderTask != null) {
+                    stolen.increment();
+                    return loaderTask;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -1,149 +1,793 @@
 package org.example.loader.events;
 
 import lombok.Getter;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.example.loader.Link;
 import org.example.loader.Loader;
+import org.example.loader.LoaderSettings;
+import org.example.loader.body.BufferPool;
+import org.example.loader.breaker.CircuitBreakerListener;
+import org.example.loader.breaker.CircuitBreakers;
+import org.example.loader.breaker.CircuitState;
+import org.example.loader.body.ContentEncoding;
+import org.example.loader.body.CountingInputStream;
+import org.example.loader.body.ResponseBody;
+import org.example.loader.cache.CacheEntry;
+import org.example.loader.cache.HttpCache;
+import org.example.loader.connection.ConnectionManager;
+import org.example.loader.cookie.CookieJar;
+import org.example.loader.dispatch.HandlerStage;
+import org.example.loader.dispatch.WorkStealingDispatcher;
 import org.example.loader.exceptions.AuthorizedException;
+import org.example.loader.exceptions.CircuitOpenException;
+import org.example.loader.filter.SeenFilter;
+import org.example.loader.frontier.Frontier;
+import org.example.loader.frontier.HostFairFrontier;
+import org.example.loader.frontier.InMemoryFrontier;
+import org.example.loader.frontier.SegmentLogFrontier;
+import org.example.loader.frontier.TaskRecord;
+import org.example.loader.limit.RateLimiter;
+import org.example.loader.log.AccessLog;
+import org.example.loader.retry.RetryBudget;
+import org.example.loader.retry.RetryPolicy;
+import org.example.loader.metrics.LoaderMetrics;
+import org.example.loader.metrics.MetricsExporter;
+import org.example.loader.metrics.MetricsExporters;
 import org.example.loader.exceptions.ForbiddenException;
 import org.example.loader.exceptions.NotFoundException;
+import org.example.loader.exceptions.ServerErrorException;
+import org.example.loader.exceptions.TooManyRequestsException;
 import org.example.model.ModelConstants;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.net.HttpCookie;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.BlockingQueue;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class AbstractDataLoader implements DataLoader {
 
-    public static final long MAX_WAITING_TIME = TimeUnit.SECONDS.toMillis(5);
     private static final Logger log = getLogger(Loader.class);
 
     protected final Executor loaderExecutor;
     protected final ScheduledExecutorService taskExecutor;
 
-    protected final long pauseRequests;
-    protected final int limitRequest;
+    @Getter
+    protected final ConnectionManager connectionManager;
+    @Getter
+    protected final RateLimiter rateLimiter;
 
-    protected final BlockingQueue<LoaderTask> taskQueue = new PriorityBlockingQueue<>();
+    @Getter
+    protected final Frontier frontier;
+    private final long checkpointInterval;
+    private final Map<String, Consumer<SuccessEvent>> handlers = new ConcurrentHashMap<>();
 
-    protected final Map<String, HttpCookie> cookies;
+    @Getter
+    protected final CookieJar cookieJar = new CookieJar();
+    @Getter
+    protected final BufferPool bufferPool = new BufferPool();
+    @Getter
+    protected final HttpCache cache;
+    private final boolean compression;
+    private final long maxBodySize;
+    protected final LoaderMetrics metrics;
+    private final long metricsInterval;
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    protected final AccessLog accessLog;
 
-    protected final Set<String> notSuitableValues = ConcurrentHashMap.newKeySet();
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    // tasks waiting for a retry or for a token of their host, offered again by requeue
+    private final Map<Long, LoaderTask> waiting = new ConcurrentHashMap<>();
+    protected final CircuitBreakers circuitBreakers;
 
     @Getter
-    protected final AtomicLong lastMessageTime = new AtomicLong();
+    protected final SeenFilter seenFilter;
+    private final Path seenFilterPath;
+    @Getter
+    private final boolean dedupLinks;
+
+    protected final AtomicLong inFlightTasks = new AtomicLong();
+    protected final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private volatile Runnable idleListener;
+    private volatile DataLoader facade = this;
+    private final WorkStealingDispatcher dispatcher;
+    private final HandlerStage handlerStage;
 
     public AbstractDataLoader(long pauseRequest, int limitRequest) {
+        this(new LoaderSettings.Builder()
+              .pauseRequest(pauseRequest)
+              .limitRequest(limitRequest)
+              .build());
+    }
+
+    public AbstractDataLoader(LoaderSettings settings) {
         this.loaderExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("loader-", 0).factory());
         this.taskExecutor = Executors.newScheduledThreadPool(1, Thread.ofVirtual().name("loader-checker", 0).factory());
-        cookies = new ConcurrentHashMap<>();
-        this.pauseRequests = pauseRequest == 0L ? 1L : pauseRequest;
-        this.limitRequest = limitRequest;
+        this.metrics = new LoaderMetrics(settings.getName());
+        this.metricsInterval = settings.getMetricsInterval();
+        this.connectionManager = new ConnectionManager(settings, loaderExecutor, metrics, cookieJar);
+        this.rateLimiter = new RateLimiter(settings.rateLimiterSettings());
+        this.seenFilterPath = StringUtils.isBlank(settings.getSeenFilterPath()) ? null : Path.of(settings.getSeenFilterPath());
+        this.seenFilter = createSeenFilter(settings, seenFilterPath);
+        this.dedupLinks = settings.isDedupLinks();
+        this.frontier = createFrontier(settings);
+        this.checkpointInterval = settings.getCheckpointInterval();
+        this.cache = StringUtils.isBlank(settings.getCachePath())
+              ? null
+              : new HttpCache(Path.of(settings.getCachePath()), settings.getCacheMaxBytes());
+        this.compression = settings.isCompression();
+        this.maxBodySize = settings.getMaxBodySize();
+        this.retryPolicy = new RetryPolicy(settings.retrySettings());
+        this.retryBudget = new RetryBudget(settings.getRetryBudgetRatio(), settings.getRetryBudgetReserve());
+        this.circuitBreakers = settings.isCircuitBreaker()
+              ? new CircuitBreakers(settings.circuitBreakerSettings(), this::reoffer, this::rejectOpenCircuit)
+              : null;
+        this.accessLog = StringUtils.isBlank(settings.getAccessLogPath())
+              ? null
+              : new AccessLog(settings.accessLogSettings());
+        frontier.bind(this::restoreTask);
+        this.dispatcher = new WorkStealingDispatcher(settings.getDispatchWorkers(), frontier, rateLimiter, this::schedule,
+              this::failDispatch, () -> !completion.isDone(), settings.getFrontierHighWater(), settings.getFrontierLowWater());
+        this.handlerStage = new HandlerStage(settings.getHandlerThreads(), settings.getHandlerQueueSize());
+        metrics.gauges(() -> frontier.size() + dispatcher.queued(), inFlightTasks::get);
+        metrics.pipelineGauges(handlerStage::backlog, dispatcher::waiting);
+        if (circuitBreakers != null) {
+            metrics.circuitGauges(circuitBreakers::openCircuits, circuitBreakers::parked);
+            circuitBreakers.addListener(event -> {
+                if (event.to() == CircuitState.OPEN) {
+                    metrics.onCircuitOpened();
+                }
+            });
+        }
+    }
+
+    private static Frontier createFrontier(LoaderSettings settings) {
+        Frontier memory = settings.isHostFairness()
+              ? new HostFairFrontier(settings.getCrawlPolicy())
+              : new InMemoryFrontier(settings.getCrawlPolicy());
+        if (StringUtils.isBlank(settings.getFrontierPath())) {
+            return memory;
+        }
+        return new SegmentLogFrontier(Path.of(settings.getFrontierPath()), settings.getHotWindow(), settings.getSegmentSize(), memory);
     }
 
     @Override
     public LoaderTask addTask(Link link) {
+        return addTask(link, null);
+    }
+
+    @Override
+    public LoaderTask addTask(Link link, String handler) {
         LoaderTask event = new LoaderTask(link);
-        taskQueue.add(event);
+        if (handler != null) {
+            event.bindHandler(handler, handler(handler));
+        }
+        if (dedupLinks && !seenFilter.add(link.key())) {
+            return skip(event);
+        }
+        if (handlerStage.isHandlerThread()) {
+            awaitFrontierRoom();
+        }
+        inFlightTasks.incrementAndGet();
+        event.whenComplete((loaderEvent, throwable) -> onTaskFinished(event));
+        frontier.offer(event);
         return event;
     }
 
+    // only handlers wait, a full handler stage means fetching waits for them
+    private void awaitFrontierRoom() {
+        try {
+            dispatcher.awaitRoom(handlerStage::isFull);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public LoaderTask addNewTask(Link link, String handler) {
+        // with dedupLinks addTask checks the filter itself
+        if (dedupLinks || seenFilter.add(link.key())) {
+            return addTask(link, handler);
+        }
+        return skip(new LoaderTask(link));
+    }
+
+    private LoaderTask skip(LoaderTask event) {
+        log.debug("SKIP [{}] {}", event.getLink().getMethod(), event.getLink().buildUrl());
+        metrics.onDropped();
+        event.cancel(false);
+        return event;
+    }
+
+    @Override
+    public void registerHandler(String name, Consumer<SuccessEvent> handler) {
+        handlers.put(name, handler);
+    }
+
+    @Override
+    public long resume() {
+        long recovered = frontier.recover();
+        inFlightTasks.addAndGet(recovered);
+        return recovered;
+    }
+
+    private Consumer<SuccessEvent> handler(String name) {
+        Consumer<SuccessEvent> handler = handlers.get(name);
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler '" + name + "' is not registered");
+        }
+        return handler;
+    }
+
+    // tasks read back from the frontier are already counted as in flight
+    private LoaderTask restoreTask(TaskRecord record) {
+        LoaderTask task = new LoaderTask(record.link());
+        if (record.handler() != null) {
+            task.bindHandler(record.handler(), handler(record.handler()));
+        }
+        task.whenComplete((loaderEvent, throwable) -> onTaskFinished(task));
+        return task;
+    }
+
+    private void onTaskFinished(LoaderTask task) {
+        frontier.release(task);
+        if (inFlightTasks.decrementAndGet() == 0 && started.get()) {
+            onIdle();
+        }
+    }
+
+    private void onIdle() {
+        Runnable listener = idleListener;
+        if (listener != null) {
+            listener.run();
+            return;
+        }
+        log.info("Stopping execution cause no more tasks");
+        completion.complete(null);
+    }
+
+    /**
+     * With a listener the loader keeps running when it runs out of tasks and
+     * only tells the listener, which ends the crawl by {@link #finish()}.
+     * Must be set before {@link #startUp()}.
+     */
+    public void setIdleListener(Runnable idleListener) {
+        this.idleListener = idleListener;
+    }
+
+    /**
+     * Loader that events hand new tasks to, for a wrapper like
+     * {@link org.example.loader.cluster.ClusterNode} that routes them first.
+     */
+    public void setFacade(DataLoader facade) {
+        this.facade = facade;
+    }
+
+    protected DataLoader facade() {
+        return facade;
+    }
+
+    public void finish() {
+        log.info("Stopping execution, crawl is finished");
+        completion.complete(null);
+    }
+
     @Override
     public boolean isSuitable(String value) {
-        if (notSuitableValues.contains(value)) {
-            return false;
+        return seenFilter.add(value);
+    }
+
+    private static SeenFilter createSeenFilter(LoaderSettings settings, Path path) {
+        if (path != null && Files.exists(path)) {
+            try {
+                SeenFilter restored = SeenFilter.restore(path);
+                log.info("Restored seen filter with {} values from {}", restored.size(), path);
+                return restored;
+            } catch (IOException e) {
+                log.error("Cannot restore seen filter from {}", path, e);
+            }
         }
-        return notSuitableValues.add(value);
+        return SeenFilter.create(settings.getSeenFilterType(), settings.getExpectedInsertions(), settings.getFalsePositiveRate());
     }
 
     @Override
     public void startUp() {
-        taskExecutor.scheduleWithFixedDelay(this::runTaskGroup, 500L, pauseRequests, TimeUnit.MILLISECONDS);
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        resume();
+        if (inFlightTasks.get() == 0 && idleListener == null) {
+            completion.complete(null);
+            return;
+        }
+        exporters.addAll(MetricsExporters.registered());
+        exporters.forEach(exporter -> exporter.bind(metrics));
+        handlerStage.start("loader-handler");
+        dispatcher.start("loader-dispatcher");
+        taskExecutor.scheduleWithFixedDelay(connectionManager::evictIdle, 1L, 1L, TimeUnit.SECONDS);
+        taskExecutor.scheduleWithFixedDelay(rateLimiter::evictIdle, 1L, 1L, TimeUnit.MINUTES);
+        if (circuitBreakers != null) {
+            taskExecutor.scheduleWithFixedDelay(circuitBreakers::tick, 1L, 1L, TimeUnit.SECONDS);
+        }
+        if (checkpointInterval > 0) {
+            taskExecutor.scheduleWithFixedDelay(this::checkpoint, checkpointInterval, checkpointInterval, TimeUnit.MILLISECONDS);
+        }
+        if (metricsInterval > 0 && !exporters.isEmpty()) {
+            taskExecutor.scheduleWithFixedDelay(this::exportMetrics, metricsInterval, metricsInterval, TimeUnit.MILLISECONDS);
+        }
+        if (inFlightTasks.get() == 0) {
+            onIdle();
+        }
     }
 
     @Override
     public void shutDown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
         taskExecutor.shutdownNow();
-        if (!taskQueue.isEmpty()) {
-            taskQueue.forEach(loaderTask -> log.info("CANCEL [{}] {}", loaderTask.getLink().getMethod(), loaderTask.getLink().buildUrl()));
+        dispatcher.stop();
+        checkpoint();
+        List<LoaderTask> pending = new ArrayList<>(frontier.close());
+        pending.addAll(dispatcher.drain());
+        for (Runnable handler : handlerStage.shutdownNow()) {
+            Delivery delivery = (Delivery) handler;
+            delivery.discard();
+            pending.add(delivery.loaderTask);
+        }
+        for (LoaderTask loaderTask : pending) {
+            log.info("CANCEL [{}] {}", loaderTask.getLink().getMethod(), loaderTask.getLink().buildUrl());
+            metrics.onCancelled();
+            loaderTask.cancel(false);
+        }
+        for (LoaderTask loaderTask : waiting.values()) {
+            if (waiting.remove(loaderTask.getSequence()) != null) {
+                metrics.onCancelled();
+                loaderTask.cancel(false);
+            }
+        }
+        if (circuitBreakers != null) {
+            for (LoaderTask loaderTask : circuitBreakers.drain()) {
+                metrics.onCancelled();
+                loaderTask.cancel(false);
+            }
+        }
+        completion.complete(null);
+        connectionManager.close();
+        log.info("Bodies: {} bytes on the wire, {} bytes decoded", wireBytes(), decodedBytes());
+        log.info("Metrics: {}", metrics.summary());
+        if (dispatcher.workers() > 1) {
+            log.info("Dispatch: {} workers, {} tasks stolen", dispatcher.workers(), dispatcher.stolen());
+        }
+        exportMetrics();
+        exporters.forEach(exporter -> exporter.unbind(metrics));
+        exporters.clear();
+        if (accessLog != null) {
+            accessLog.close();
+        }
+        if (cache != null) {
+            log.info("Cache: {} hits, {} misses, {} revalidated", cache.hits(), cache.misses(), cache.revalidations());
+        }
+        if (seenFilterPath != null) {
+            try {
+                seenFilter.persist(seenFilterPath);
+            } catch (IOException e) {
+                log.error("Cannot persist seen filter to {}", seenFilterPath, e);
+            }
+        }
+    }
+
+    private void exportMetrics() {
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(metrics);
+            } catch (RuntimeException e) {
+                log.warn("Metrics exporter {} failed", exporter.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    public void addCircuitBreakerListener(CircuitBreakerListener listener) {
+        if (circuitBreakers != null) {
+            circuitBreakers.addListener(listener);
+        }
+    }
+
+    public CircuitState circuitState(String host) {
+        return circuitBreakers == null ? CircuitState.CLOSED : circuitBreakers.state(host);
+    }
+
+    public void addMetricsExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+        if (started.get()) {
+            exporter.bind(metrics);
+        }
+    }
+
+    private void checkpoint() {
+        frontier.checkpoint();
+        if (cache != null) {
+            cache.persist();
         }
     }
 
     @Override
     public boolean isDone() {
-        return !taskQueue.isEmpty() || !taskExecutor.isShutdown();
+        return completion.isDone();
     }
 
-    public void runTaskGroup() {
-        for (int i = 0; i < limitRequest; i++) {
-            LoaderTask loaderTask = taskQueue.poll();
-            if (loaderTask == null) {
-                long lastMessage = lastMessageTime.get();
-                if (lastMessage != 0 && lastMessage < System.currentTimeMillis() - MAX_WAITING_TIME) {
-                    log.info("Stopping execution cause no more tasks");
-                    shutDown();
-                }
-                break;
+    @Override
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    @Override
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            completion.get(timeout, unit);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long inFlight() {
+        return inFlightTasks.get();
+    }
+
+    @Override
+    public LoaderMetrics metrics() {
+        return metrics;
+    }
+
+    public long wireBytes() {
+        return metrics.bytesIn();
+    }
+
+    public long decodedBytes() {
+        return metrics.bytesDecoded();
+    }
+
+    private void schedule(LoaderTask loaderTask) {
+        if (loaderTask.takeReservation()) {
+            send(loaderTask);
+            return;
+        }
+        if (cache != null && serveFromCache(loaderTask)) {
+            rateLimiter.releaseSlot();
+            return;
+        }
+        // a task held back by an open circuit gives its slot to other hosts
+        if (circuitBreakers != null && !circuitBreakers.tryAcquire(loaderTask)) {
+            rateLimiter.releaseSlot();
+            return;
+        }
+        long delay = rateLimiter.reserve(loaderTask.getLink().getHost());
+        if (delay <= 0) {
+            send(loaderTask);
+            return;
+        }
+        // the slot goes to other hosts while the task waits for its token
+        rateLimiter.releaseSlot();
+        loaderTask.markReserved();
+        waiting.put(loaderTask.getSequence(), loaderTask);
+        try {
+            taskExecutor.schedule(() -> requeue(loaderTask), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            if (waiting.remove(loaderTask.getSequence()) != null) {
+                metrics.onCancelled();
+                loaderTask.cancel(false);
             }
-            lastMessageTime.set(System.currentTimeMillis());
-            if (!runTask(loaderTask)) {
-                break;
+        }
+    }
+
+    // the dispatcher gave the slot back, the task fails like a request
+    private void failDispatch(LoaderTask loaderTask, RuntimeException e) {
+        loaderTask.releaseDispatch();
+        complete(loaderTask, new FailEvent(facade(), loaderTask.getLink(), e.getLocalizedMessage(), e));
+    }
+
+    // a fresh entry is answered without a request, a stale one is revalidated
+    private boolean serveFromCache(LoaderTask loaderTask) {
+        Link link = loaderTask.getLink();
+        if (!HttpCache.isCacheable(link)) {
+            return false;
+        }
+        CacheEntry entry = cache.lookup(link.normalizedKey());
+        if (entry == null) {
+            return false;
+        }
+        if (!entry.isFresh(System.currentTimeMillis())) {
+            if (entry.hasValidators()) {
+                loaderTask.revalidate(entry);
             }
+            return false;
+        }
+        try {
+            // the body is read off the dispatch worker, which gives its slot back right away
+            loaderExecutor.execute(() -> completeFromCache(loaderTask, entry));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Cannot serve {} from cache", link.buildUrl(), e);
+            return false;
         }
     }
 
-    protected void initLoader(Link link) {
-        link.getCookies().values()
-              .forEach(cookie -> cookies.put(cookie.key(), new HttpCookie(cookie.key(), cookie.value())));
+    private void completeFromCache(LoaderTask loaderTask, CacheEntry entry) {
+        Link link = loaderTask.getLink();
+        ResponseBody body;
+        try {
+            body = cache.read(entry, bufferPool);
+        } catch (IOException e) {
+            // the entry is gone from the cache, the task goes to the network
+            log.warn("Cannot serve {} from cache", link.buildUrl(), e);
+            reoffer(loaderTask);
+            return;
+        }
+        complete(loaderTask, new SuccessEvent(facade(), link, 200, entry.headers(), body));
     }
 
-    protected void initConnection(HttpURLConnection urlConnection, Link link) {
-        String cookies = getCookieString();
-        if (StringUtils.isNoneBlank(cookies)) {
-            urlConnection.setRequestProperty(ModelConstants.COOKIE_HEADER, cookies);
+    private void send(LoaderTask loaderTask) {
+        String body = loaderTask.getLink().getBody();
+        metrics.onRequest(body == null ? 0L : body.getBytes(StandardCharsets.UTF_8).length);
+        if (loaderTask.retries() == 0) {
+            retryBudget.onRequest();
+        }
+        loaderTask.markDispatched(System.nanoTime());
+        try {
+            runTask(loaderTask);
+        } catch (RuntimeException e) {
+            complete(loaderTask, new FailEvent(facade(), loaderTask.getLink(), e.getLocalizedMessage(), e));
         }
-        link.getHeaders().forEach(urlConnection::setRequestProperty);
     }
 
-    protected static void logLink(Link link) {
-        log.info("[{}] {}", link.getMethod(), link.buildUrl());
+    /**
+     * Books the response and hands it to the handler stage. The concurrency
+     * slot is given back only once the handlers have taken the event, which
+     * slows fetching down to the pace of the handlers.
+     */
+    protected void complete(LoaderTask loaderTask, LoaderEvent loaderEvent) {
+        long dispatchTime = loaderTask.releaseDispatch();
+        if (dispatchTime != 0L) {
+            String host = loaderTask.getLink().getHost();
+            long latency = System.nanoTime() - dispatchTime;
+            rateLimiter.onResponse(host, loaderEvent.statusCode(), latency);
+            metrics.onResponse(host, loaderEvent.statusCode(), latency);
+            if (circuitBreakers != null) {
+                circuitBreakers.onResponse(host, loaderEvent.statusCode(), latency);
+            }
+            logResponse(loaderTask.getLink(), loaderEvent, latency);
+        }
+        try {
+            if (loaderEvent instanceof FailEvent failEvent && retryLater(loaderTask, failEvent)) {
+                loaderEvent.release();
+                return;
+            }
+            LoaderEvent event = cache == null ? loaderEvent : throughCache(loaderTask, loaderEvent);
+            handlerStage.submit(new Delivery(loaderTask, event, loaderEvent));
+        } finally {
+            if (dispatchTime != 0L) {
+                rateLimiter.releaseSlot();
+            }
+        }
     }
 
-    protected String getCookieString() {
-        StringBuilder cookieString = new StringBuilder();
-        cookies.values()
-              .forEach(cookie -> cookieString.append(cookie.getName()).append("=").append(cookie.getValue()).append(';'));
-        return cookieString.toString();
+    // bodies go back to the pool after the callbacks unless they were retained
+    private final class Delivery implements Runnable {
+        private final LoaderTask loaderTask;
+        private final LoaderEvent event;
+        private final LoaderEvent received;
+
+        private Delivery(LoaderTask loaderTask, LoaderEvent event, LoaderEvent received) {
+            this.loaderTask = loaderTask;
+            this.event = event;
+            this.received = received;
+        }
+
+        @Override
+        public void run() {
+            // besides the loader's own bookkeeping somebody waits on the task
+            if (loaderTask.getNumberOfDependents() > 1) {
+                event.body().detach();
+            }
+            long callbackStart = System.nanoTime();
+            loaderTask.complete(event);
+            metrics.onCallback(System.nanoTime() - callbackStart);
+            discard();
+        }
+
+        private void discard() {
+            event.release();
+            if (event != received) {
+                received.release();
+            }
+        }
+    }
+
+    // the task stays leased and in flight until it is offered to the frontier again
+    private boolean retryLater(LoaderTask loaderTask, FailEvent failEvent) {
+        long delay = retryPolicy.delay(failEvent, loaderTask.retries());
+        if (delay == RetryPolicy.NO_RETRY || stopped.get()) {
+            return false;
+        }
+        if (!retryBudget.tryAcquire()) {
+            metrics.onRetryDenied();
+            return false;
+        }
+        loaderTask.markRetry();
+        waiting.put(loaderTask.getSequence(), loaderTask);
+        try {
+            taskExecutor.schedule(() -> requeue(loaderTask), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            waiting.remove(loaderTask.getSequence());
+            return false;
+        }
+        metrics.onRetry();
+        if (log.isDebugEnabled()) {
+            log.debug("RETRY #{} in {}ms after {} [{}] {}", loaderTask.retries(), delay, failEvent.statusCode(),
+                  loaderTask.getLink().getMethod(), loaderTask.getLink().buildUrl());
+        }
+        return true;
+    }
+
+    private void requeue(LoaderTask loaderTask) {
+        if (waiting.remove(loaderTask.getSequence()) != null) {
+            reoffer(loaderTask);
+        }
+    }
+
+    private void reoffer(LoaderTask loaderTask) {
+        if (stopped.get()) {
+            metrics.onCancelled();
+            loaderTask.cancel(false);
+            return;
+        }
+        frontier.release(loaderTask);
+        frontier.offer(loaderTask);
+    }
+
+    // the task was never sent, it fails without a status and is not retried
+    private void rejectOpenCircuit(LoaderTask loaderTask) {
+        Link link = loaderTask.getLink();
+        CircuitOpenException cause = new CircuitOpenException(link.getHost());
+        complete(loaderTask, new FailEvent(facade(), link, cause.getMessage(), cause));
+    }
+
+    private LoaderEvent throughCache(LoaderTask loaderTask, LoaderEvent loaderEvent) {
+        Link link = loaderTask.getLink();
+        CacheEntry entry = loaderTask.revalidating();
+        if (entry != null && isNotModified(loaderEvent.statusCode())) {
+            try {
+                return new SuccessEvent(facade(), link, 200, entry.headers(), cache.revalidated(entry, loaderEvent.headers(), bufferPool));
+            } catch (IOException e) {
+                return new FailEvent(facade(), link, 304, loaderEvent.headers(), ResponseBody.of(null), e);
+            }
+        }
+        if (loaderEvent instanceof SuccessEvent && loaderEvent.statusCode() == 200 && HttpCache.isCacheable(link)
+              && !loaderEvent.body().isReleased()) {
+            cache.store(link.normalizedKey(), loaderEvent.headers(), loaderEvent.body());
+        }
+        return loaderEvent;
+    }
+
+    protected ResponseBody readBody(InputStream in, long contentLength, Map<String, List<String>> headers) throws IOException {
+        long start = System.nanoTime();
+        CountingInputStream wire = new CountingInputStream(in);
+        CountingInputStream decoded = null;
+        try (InputStream decoder = ContentEncoding.decode(wire, header(headers, ModelConstants.CONTENT_ENCODING_HEADER))) {
+            decoded = new CountingInputStream(decoder, maxBodySize);
+            // a body past the limit fails anyway, its announced length is not allocated
+            long expected = maxBodySize > 0 ? Math.min(contentLength, maxBodySize) : contentLength;
+            return ResponseBody.read(decoded, expected, header(headers, ModelConstants.CONTENT_TYPE_HEADER), bufferPool);
+        } finally {
+            metrics.onBody(System.nanoTime() - start, wire.count(), decoded == null ? 0L : decoded.count());
+        }
+    }
+
+    protected void applyHeaders(LoaderTask loaderTask, BiConsumer<String, String> header) {
+        Link link = loaderTask.getLink();
+        CacheEntry entry = loaderTask.revalidating();
+        if (entry != null) {
+            if (entry.etag() != null) {
+                header.accept(ModelConstants.IF_NONE_MATCH_HEADER, entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                header.accept(ModelConstants.IF_MODIFIED_SINCE_HEADER, entry.lastModified());
+            }
+        }
+        if (compression && !link.getHeaders().containsKey(ModelConstants.ACCEPT_ENCODING_HEADER)) {
+            header.accept(ModelConstants.ACCEPT_ENCODING_HEADER, ContentEncoding.ACCEPT_ENCODING);
+        }
+        link.getHeaders().forEach(header);
+    }
+
+    private static String header(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.getFirst();
+    }
+
+    protected static Map<String, List<String>> headerMap(Map<String, List<String>> headers) {
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.forEach((name, values) -> {
+            if (name != null) {
+                map.put(name, values);
+            }
+        });
+        return Collections.unmodifiableMap(map);
+    }
+
+    // cookies set on a link stay in the jar for later requests to its host
+    protected void initLoader(Link link) {
+        if (!link.getCookies().isEmpty() && !link.getHost().isEmpty()) {
+            link.getCookies().values().forEach(cookie -> cookieJar.add(link.getHost(), cookie.key(), cookie.value()));
+        }
+    }
+
+    protected void initConnection(HttpURLConnection urlConnection, LoaderTask loaderTask) {
+        URL url = urlConnection.getURL();
+        String cookies = cookieJar.header("https".equalsIgnoreCase(url.getProtocol()), url.getHost(), url.getPath());
+        if (cookies != null) {
+            urlConnection.setRequestProperty(ModelConstants.COOKIE_HEADER, cookies);
+        }
+        applyHeaders(loaderTask, urlConnection::setRequestProperty);
+    }
+
+    /**
+     * With an access log the line is handed to its writer thread, otherwise
+     * it goes to the info log as it always did.
+     */
+    private void logResponse(Link link, LoaderEvent loaderEvent, long latency) {
+        if (accessLog != null) {
+            accessLog.append(link, loaderEvent.statusCode(), latency, loaderEvent.body().length());
+        } else if (log.isInfoEnabled()) {
+            log.info("[{}] {} {} {}ms", link.getMethod(), link.buildUrl(), loaderEvent.statusCode(),
+                  TimeUnit.NANOSECONDS.toMillis(latency));
+        }
     }
 
     protected static boolean is2xxCode(int responseCode) {
         return responseCode / 100 == 2;
     }
 
+    /**
+     * A 304 answers the revalidation of a cached entry, it is booked as a
+     * success and the stored body is swapped in before the handlers run.
+     * Without a cached entry the handlers get the bare 304.
+     */
+    protected static boolean isNotModified(int responseCode) {
+        return responseCode == 304;
+    }
+
     protected static boolean is4xxCode(int responseCode) {
         return responseCode / 100 == 4;
     }
@@ -152,7 +796,8 @@ public abstract class AbstractDataLoader implements DataLoader {
         return switch (statusCode) {
             case 403 -> new ForbiddenException();
             case 401 -> new AuthorizedException();
-            default -> new NotFoundException();
+            case 429 -> new TooManyRequestsException();
+            default -> statusCode / 100 == 5 ? new ServerErrorException() : new NotFoundException();
         };
     }
 
@@ -1,13 +1,28 @@
 package org.example.loader.events;
 
 import org.example.loader.Link;
+import org.example.loader.metrics.LoaderMetrics;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public interface DataLoader {
 
     LoaderTask addTask(Link link);
 
+    LoaderTask addTask(Link link, String handler);
+
+    /**
+     * Adds the task unless a link with the same normalized key was added
+     * before, a skipped task is returned cancelled.
+     */
+    LoaderTask addNewTask(Link link, String handler);
+
+    void registerHandler(String name, Consumer<SuccessEvent> handler);
+
+    long resume();
+
     boolean isSuitable(String value);
 
     void startUp();
@@ -18,4 +33,12 @@ public interface DataLoader {
 
     boolean isDone();
 
+    CompletableFuture<Void> completion();
+
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException;
+
+    long inFlight();
+
+    LoaderMetrics metrics();
+
 }
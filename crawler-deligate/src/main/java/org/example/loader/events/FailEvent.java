@@ -1,6 +1,10 @@
 package org.example.loader.events;
 
 import org.example.loader.Link;
+import org.example.loader.body.ResponseBody;
+
+import java.util.List;
+import java.util.Map;
 
 public class FailEvent extends LoaderEvent {
 
@@ -11,6 +15,17 @@ public class FailEvent extends LoaderEvent {
         this.cause = cause;
     }
 
+    public FailEvent(DataLoader loader, Link link, int statusCode, String content, Throwable cause) {
+        super(loader, link, statusCode, content);
+        this.cause = cause;
+    }
+
+    public FailEvent(DataLoader loader, Link link, int statusCode, Map<String, List<String>> headers, ResponseBody body,
+                     Throwable cause) {
+        super(loader, link, statusCode, headers, body);
+        this.cause = cause;
+    }
+
     public Throwable cause() {
         return cause;
     }
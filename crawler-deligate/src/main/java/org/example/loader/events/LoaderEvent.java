@@ -1,42 +1,209 @@
 package org.example.loader.events;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.example.loader.Link;
 import org.example.loader.Loader;
+import org.example.loader.body.ResponseBody;
+import org.example.loader.html.HtmlScanner;
+import org.example.loader.html.HtmlTag;
+import org.example.loader.html.LinkExtractor;
 import org.example.util.JsonUtils;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Response handed to the callbacks of a task. A body read from the network
+ * sits in a pooled buffer that goes back to the pool once the callbacks
+ * return, what was parsed from it stays usable. To read the body later, for
+ * example on another thread, call {@link #retain()} in the callback and
+ * {@link #release()} when done. A task that somebody waits on or chains onto
+ * before it completes gets a copy of the body instead, so the completed value
+ * of the future stays readable.
+ */
 public abstract class LoaderEvent {
 
     protected final DataLoader loader;
     protected final Link link;
-    protected final String content;
+    protected final int statusCode;
+    protected final Map<String, List<String>> headers;
+    protected final ResponseBody body;
+    private volatile JsonNode json;
+    private volatile Document html;
 
     protected LoaderEvent(DataLoader loader, Link link, String content) {
+        this(loader, link, 0, content);
+    }
+
+    protected LoaderEvent(DataLoader loader, Link link, int statusCode, String content) {
+        this(loader, link, statusCode, Collections.emptyMap(), ResponseBody.of(content));
+    }
+
+    protected LoaderEvent(DataLoader loader, Link link, int statusCode, Map<String, List<String>> headers, ResponseBody body) {
         this.loader = loader;
-        this.content = content;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
         this.link = link;
     }
 
     public LoaderTask addTask(Link link) {
-        return loader.addTask(link);
+        return loader.addTask(inheritDepth(link));
+    }
+
+    public LoaderTask addTask(Link link, String handler) {
+        return loader.addTask(inheritDepth(link), handler);
+    }
+
+    private Link inheritDepth(Link child) {
+        if (child.getDepth() == 0 && this.link != null) {
+            child.setDepth(this.link.getDepth() + 1);
+        }
+        return child;
     }
 
     public DataLoader loader() {
         return loader;
     }
 
+    public Link link() {
+        return link;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    public String header(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.getFirst();
+    }
+
+    public ResponseBody body() {
+        return body;
+    }
+
     public String content() {
-        return content;
+        return body.text();
     }
 
     public JsonNode json() {
-        return JsonUtils.parseJson(content);
+        JsonNode node = json;
+        if (node == null) {
+            node = body.readJson();
+            json = node;
+        }
+        return node;
+    }
+
+    public JsonNode json(String pointer) {
+        JsonNode node = json;
+        if (node != null) {
+            return node.at(pointer);
+        }
+        return JsonUtils.at(jsonParser(), JsonPointer.compile(pointer));
     }
 
+    public void forEachJson(String arrayPointer, Consumer<JsonNode> consumer) {
+        JsonNode node = json;
+        if (node != null) {
+            node.at(arrayPointer).forEach(consumer);
+            return;
+        }
+        JsonUtils.forEachElement(jsonParser(), JsonPointer.compile(arrayPointer), consumer);
+    }
+
+    public JsonParser jsonParser() {
+        return body.jsonParser();
+    }
+
+    /**
+     * Parses the page once, later calls return the same document.
+     */
     public Document html() {
-        return Jsoup.parse(content);
+        Document document = html;
+        if (document == null) {
+            document = body.html(baseUrl());
+            html = document;
+        }
+        return document;
+    }
+
+    public Elements select(String cssQuery) {
+        return html().select(cssQuery);
+    }
+
+    /**
+     * Streams the start tags with the given names without building a DOM,
+     * see {@link HtmlScanner} for what the scan understands.
+     */
+    public void forEachTag(Set<String> names, Consumer<HtmlTag> consumer) {
+        HtmlScanner.scan(content(), names, consumer);
+    }
+
+    /**
+     * @return absolute, normalized URLs of the links on the page, each once
+     */
+    public List<String> links() {
+        Document document = html;
+        if (document != null) {
+            return LinkExtractor.links(document);
+        }
+        return LinkExtractor.links(content(), baseUrl());
+    }
+
+    /**
+     * Adds a task for every link on the page accepted by {@code filter} that
+     * was not added before in this crawl.
+     *
+     * @return the tasks that were added, to attach callbacks to
+     */
+    public List<LoaderTask> followLinks(Predicate<String> filter) {
+        return followLinks(filter, null);
+    }
+
+    public List<LoaderTask> followLinks(Predicate<String> filter, String handler) {
+        List<LoaderTask> tasks = new ArrayList<>();
+        for (String url : links()) {
+            if (filter.test(url)) {
+                LoaderTask task = loader.addNewTask(inheritDepth(new Link.Builder(url).build()), handler);
+                if (!task.isCancelled()) {
+                    tasks.add(task);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    private String baseUrl() {
+        return link == null ? "" : link.buildUrl();
+    }
+
+    /**
+     * Keeps the body after the callback returns, each successful call needs
+     * a matching {@link #release()}.
+     *
+     * @return false when the body was already released
+     */
+    public boolean retain() {
+        return body.retain();
+    }
+
+    public void release() {
+        body.release();
     }
 
 }
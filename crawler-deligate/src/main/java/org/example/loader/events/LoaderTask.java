@@ -2,44 +2,165 @@ package org.example.loader.events;
 
 import lombok.Getter;
 import org.example.loader.Link;
+import org.example.loader.cache.CacheEntry;
+import org.slf4j.Logger;
 
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
 public class LoaderTask extends CompletableFuture<LoaderEvent> implements Comparable<LoaderTask> {
+    private static final Logger log = getLogger(LoaderTask.class);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
 
     @Getter
     private final Link link;
+    @Getter
+    private final long sequence;
 
     public LoaderTask(Link link) {
         this.link = link;
+        this.sequence = SEQUENCE.incrementAndGet();
+    }
+
+    // callbacks may be attached by another thread after the task was queued
+    private volatile Consumer<SuccessEvent> successEventConsumer;
+    private volatile Consumer<FailEvent> failEventConsumer;
+    private LoaderEvent delivered;
+
+    @Getter
+    private String handler;
+    private volatile boolean spilled;
+
+    private long dispatchTime;
+    private volatile CacheEntry revalidating;
+    private volatile int retries;
+    private volatile boolean reserved;
+
+    synchronized void markDispatched(long dispatchTime) {
+        this.dispatchTime = dispatchTime;
+    }
+
+    synchronized long releaseDispatch() {
+        long time = dispatchTime;
+        dispatchTime = 0L;
+        return time;
+    }
+
+    void revalidate(CacheEntry entry) {
+        this.revalidating = entry;
+    }
+
+    CacheEntry revalidating() {
+        return revalidating;
+    }
+
+    public int retries() {
+        return retries;
+    }
+
+    void markRetry() {
+        retries++;
+    }
+
+    void markReserved() {
+        reserved = true;
     }
 
-    private Consumer<SuccessEvent> successEventConsumer;
-    private Consumer<FailEvent> failEventConsumer;
+    // true once for a task that already holds a token of its host's rate
+    boolean takeReservation() {
+        boolean held = reserved;
+        reserved = false;
+        return held;
+    }
 
+    /**
+     * A callback attached after the task was answered runs right away on the
+     * calling thread.
+     */
     public LoaderTask onSuccess(Consumer<SuccessEvent> seConsumer) {
-        successEventConsumer = seConsumer;
+        if (spilled) {
+            log.warn("Callback set after {} was written to disk, it will use handler '{}'", link.buildUrl(), handler);
+        }
+        LoaderEvent event;
+        synchronized (this) {
+            successEventConsumer = seConsumer;
+            handler = null;
+            event = delivered;
+        }
+        if (event instanceof SuccessEvent se) {
+            acceptLate(seConsumer, se);
+        }
         return this;
     }
 
+    void bindHandler(String name, Consumer<SuccessEvent> seConsumer) {
+        successEventConsumer = seConsumer;
+        handler = name;
+    }
+
+    public boolean isPersistable() {
+        return failEventConsumer == null && (successEventConsumer == null || handler != null);
+    }
+
+    public void markSpilled() {
+        spilled = true;
+    }
+
     public LoaderTask onFail(Consumer<FailEvent> feConsumer) {
-        failEventConsumer = feConsumer;
+        LoaderEvent event;
+        synchronized (this) {
+            failEventConsumer = feConsumer;
+            event = delivered;
+        }
+        if (event instanceof FailEvent fe) {
+            acceptLate(feConsumer, fe);
+        }
         return this;
     }
 
     @Override
     public boolean complete(LoaderEvent loaderEvent) {
-        if (successEventConsumer != null && loaderEvent instanceof SuccessEvent se) {
-            successEventConsumer.accept(se);
-        } else if (failEventConsumer != null && loaderEvent instanceof FailEvent fe) {
-            failEventConsumer.accept(fe);
+        Consumer<SuccessEvent> seConsumer;
+        Consumer<FailEvent> feConsumer;
+        synchronized (this) {
+            delivered = loaderEvent;
+            seConsumer = successEventConsumer;
+            feConsumer = failEventConsumer;
+        }
+        if (seConsumer != null && loaderEvent instanceof SuccessEvent se) {
+            accept(seConsumer, se);
+        } else if (feConsumer != null && loaderEvent instanceof FailEvent fe) {
+            accept(feConsumer, fe);
         }
         return super.complete(loaderEvent);
     }
 
+    private <E extends LoaderEvent> void accept(Consumer<E> consumer, E event) {
+        try {
+            consumer.accept(event);
+        } catch (RuntimeException e) {
+            log.error("Callback failed for {}", link.buildUrl(), e);
+        }
+    }
+
+    // a late callback may race the loader giving the body back
+    private <E extends LoaderEvent> void acceptLate(Consumer<E> consumer, E event) {
+        boolean retained = event.retain();
+        try {
+            accept(consumer, event);
+        } finally {
+            if (retained) {
+                event.release();
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -59,6 +180,7 @@ public class LoaderTask extends CompletableFuture<LoaderEvent> implements Compar
 
     @Override
     public int compareTo(LoaderTask o) {
-        return Integer.compare(hashCode(), o.hashCode());
+        int byPriority = Integer.compare(o.link.getPriority(), link.getPriority());
+        return byPriority != 0 ? byPriority : Long.compare(sequence, o.sequence);
     }
 }
@@ -1,11 +1,23 @@
 package org.example.loader.events;
 
 import org.example.loader.Link;
+import org.example.loader.body.ResponseBody;
+
+import java.util.List;
+import java.util.Map;
 
 public class SuccessEvent extends LoaderEvent {
 
     public SuccessEvent(DataLoader loader, Link link, String content) {
-        super(loader, link, content);
+        super(loader, link, 200, content);
+    }
+
+    public SuccessEvent(DataLoader loader, Link link, int statusCode, String content) {
+        super(loader, link, statusCode, content);
+    }
+
+    public SuccessEvent(DataLoader loader, Link link, int statusCode, Map<String, List<String>> headers, ResponseBody body) {
+        super(loader, link, statusCode, headers, body);
     }
 
 
@@ -0,0 +1,10 @@
+package org.example.loader.exceptions;
+
+import java.io.IOException;
+
+public class BodyTooLargeException extends IOException {
+
+    public BodyTooLargeException(long limit) {
+        super("Response body exceeds " + limit + " bytes");
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.loader.exceptions;
+
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String host) {
+        super("Circuit of " + host + " is open");
+    }
+}
@@ -0,0 +1,5 @@
+package org.example.loader.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+
+}
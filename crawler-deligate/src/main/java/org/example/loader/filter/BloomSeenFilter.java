@@ -0,0 +1,172 @@
+package org.example.loader.filter;
+
+import org.example.loader.LinkKey;
+import org.example.util.HashUtils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over a direct buffer, so tens of millions of keys cost a few
+ * bits each outside the heap. Bits are set with atomic ORs. Adds of the same
+ * key take the same lock stripe, otherwise two threads could each flip part
+ * of its bits and both report it as new.
+ * <p>
+ * Words are kept big-endian, so a persisted filter reads back the same on
+ * any platform.
+ */
+public class BloomSeenFilter implements SeenFilter {
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final int STRIPES = 64;
+    private static final int HEADER_SIZE = 1 + 4 + 8 + 8;
+    private static final long MAX_BITS = (Integer.MAX_VALUE / Long.BYTES) * (long) Long.SIZE;
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder size = new LongAdder();
+    private final Object[] locks = new Object[STRIPES];
+
+    public BloomSeenFilter(long expectedInsertions, double falsePositiveRate) {
+        this(optimalBits(expectedInsertions, falsePositiveRate), optimalHashes(expectedInsertions, falsePositiveRate));
+    }
+
+    private BloomSeenFilter(long bitCount, int hashCount) {
+        long words = (bitCount + Long.SIZE - 1) / Long.SIZE;
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = hashCount;
+        this.bits = ByteBuffer.allocateDirect((int) (words * Long.BYTES)).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean add(String value) {
+        return add(HashUtils.hash64(value));
+    }
+
+    // the key hash is the hash of its value, so both overloads set the same bits
+    @Override
+    public boolean add(LinkKey key) {
+        return add(key.hash64());
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        return mightContain(HashUtils.hash64(value));
+    }
+
+    @Override
+    public boolean mightContain(LinkKey key) {
+        return mightContain(key.hash64());
+    }
+
+    private boolean add(long hash) {
+        long step = HashUtils.mix(hash) | 1L;
+        boolean changed = false;
+        synchronized (locks[(int) (step >>> 1) & STRIPES - 1]) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = ((hash + i * step) & Long.MAX_VALUE) % bitCount;
+                long mask = 1L << bit;
+                long previous = (long) WORDS.getAndBitwiseOr(bits, (int) (bit >>> 6) * Long.BYTES, mask);
+                changed |= (previous & mask) == 0;
+            }
+        }
+        if (changed) {
+            size.increment();
+        }
+        return changed;
+    }
+
+    private boolean mightContain(long hash) {
+        long step = HashUtils.mix(hash) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash + i * step) & Long.MAX_VALUE) % bitCount;
+            long word = (long) WORDS.getVolatile(bits, (int) (bit >>> 6) * Long.BYTES);
+            if ((word & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    @Override
+    public void persist(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+              .put((byte) SeenFilterType.BLOOM.ordinal())
+              .putInt(hashCount)
+              .putLong(bitCount)
+              .putLong(size());
+        header.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, bits.duplicate().clear());
+        }
+    }
+
+    static BloomSeenFilter restore(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            header.get();
+            int hashCount = header.getInt();
+            long bitCount = header.getLong();
+            long size = header.getLong();
+
+            BloomSeenFilter filter = new BloomSeenFilter(bitCount, hashCount);
+            readFully(channel, filter.bits.duplicate().clear());
+            filter.size.add(size);
+            return filter;
+        }
+    }
+
+    private static long optimalBits(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1L, expectedInsertions);
+        double p = Math.min(0.5, Math.max(Double.MIN_VALUE, falsePositiveRate));
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        return Math.min(MAX_BITS, Math.max(Long.SIZE, bits));
+    }
+
+    private static int optimalHashes(long expectedInsertions, double falsePositiveRate) {
+        long bits = optimalBits(expectedInsertions, falsePositiveRate);
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1L, expectedInsertions) * Math.log(2)));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated seen filter file");
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.loader.filter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ExactSeenFilter implements SeenFilter {
+
+    private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean add(String value) {
+        return values.add(value);
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        return values.contains(value);
+    }
+
+    @Override
+    public long size() {
+        return values.size();
+    }
+
+    @Override
+    public void persist(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeByte(SeenFilterType.EXACT.ordinal());
+            out.writeInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    static ExactSeenFilter restore(Path path) throws IOException {
+        ExactSeenFilter filter = new ExactSeenFilter();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.readByte();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                filter.values.add(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8));
+            }
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.loader.filter;
+
+import org.example.loader.LinkKey;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public interface SeenFilter {
+
+    /**
+     * @return {@code true} if the value was not seen before
+     */
+    boolean add(String value);
+
+    boolean mightContain(String value);
+
+    default boolean add(LinkKey key) {
+        return add(key.value());
+    }
+
+    default boolean mightContain(LinkKey key) {
+        return mightContain(key.value());
+    }
+
+    long size();
+
+    void persist(Path path) throws IOException;
+
+    static SeenFilter create(SeenFilterType type, long expectedInsertions, double falsePositiveRate) {
+        return switch (type) {
+            case EXACT -> new ExactSeenFilter();
+            case BLOOM -> new BloomSeenFilter(expectedInsertions, falsePositiveRate);
+        };
+    }
+
+    static SeenFilter restore(Path path) throws IOException {
+        SeenFilterType type;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            type = SeenFilterType.values()[in.readByte()];
+        }
+        return switch (type) {
+            case EXACT -> ExactSeenFilter.restore(path);
+            case BLOOM -> BloomSeenFilter.restore(path);
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.loader.filter;
+
+public enum SeenFilterType {
+    EXACT,
+    BLOOM
+}
@@ -0,0 +1,29 @@
+package org.example.loader.frontier;
+
+import org.example.loader.events.LoaderTask;
+
+import java.util.Comparator;
+
+public enum CrawlPolicy {
+
+    /**
+     * Higher priority first, FIFO within a priority level.
+     */
+    PRIORITY(Comparator.naturalOrder()),
+    BREADTH_FIRST(Comparator.comparingInt((LoaderTask task) -> -task.getLink().getPriority())
+          .thenComparingInt(task -> task.getLink().getDepth())
+          .thenComparingLong(LoaderTask::getSequence)),
+    DEPTH_FIRST(Comparator.comparingInt((LoaderTask task) -> -task.getLink().getPriority())
+          .thenComparingInt(task -> -task.getLink().getDepth())
+          .thenComparingLong(LoaderTask::getSequence));
+
+    private final Comparator<LoaderTask> comparator;
+
+    CrawlPolicy(Comparator<LoaderTask> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<LoaderTask> comparator() {
+        return comparator;
+    }
+}
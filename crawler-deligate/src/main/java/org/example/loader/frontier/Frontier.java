@@ -0,0 +1,54 @@
+package org.example.loader.frontier;
+
+import org.example.loader.events.LoaderTask;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public interface Frontier {
+
+    void offer(LoaderTask task);
+
+    LoaderTask poll();
+
+    LoaderTask poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    long size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return tasks currently queued in memory, in no particular order
+     */
+    List<LoaderTask> snapshot();
+
+    /**
+     * Factory used to turn records read back from storage into live tasks.
+     */
+    default void bind(Function<TaskRecord, LoaderTask> taskFactory) {
+    }
+
+    /**
+     * Called once a polled task has completed.
+     */
+    default void release(LoaderTask task) {
+    }
+
+    /**
+     * @return number of tasks restored from a previous run
+     */
+    default long recover() {
+        return 0L;
+    }
+
+    default void checkpoint() {
+    }
+
+    /**
+     * @return tasks that were still queued in memory
+     */
+    List<LoaderTask> close();
+}
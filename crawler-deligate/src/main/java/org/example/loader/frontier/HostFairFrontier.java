@@ -0,0 +1,131 @@
+package org.example.loader.frontier;
+
+import org.example.loader.events.LoaderTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One queue per host, served round-robin, so a single host cannot take over
+ * the frontier. The crawl policy orders tasks within each host.
+ */
+public class HostFairFrontier implements Frontier {
+
+    private final Comparator<LoaderTask> comparator;
+    private final Map<String, PriorityQueue<LoaderTask>> hosts = new HashMap<>();
+    private final Deque<String> rotation = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private long size;
+
+    public HostFairFrontier(CrawlPolicy policy) {
+        this.comparator = policy.comparator();
+    }
+
+    @Override
+    public void offer(LoaderTask task) {
+        String host = task.getLink().getHost();
+        lock.lock();
+        try {
+            PriorityQueue<LoaderTask> queue = hosts.get(host);
+            if (queue == null) {
+                queue = new PriorityQueue<>(comparator);
+                hosts.put(host, queue);
+                rotation.addLast(host);
+            }
+            queue.add(task);
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public LoaderTask poll() {
+        lock.lock();
+        try {
+            return next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public LoaderTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<LoaderTask> snapshot() {
+        lock.lock();
+        try {
+            List<LoaderTask> tasks = new ArrayList<>((int) size);
+            hosts.values().forEach(tasks::addAll);
+            return tasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<LoaderTask> close() {
+        lock.lock();
+        try {
+            List<LoaderTask> tasks = snapshot();
+            hosts.clear();
+            rotation.clear();
+            size = 0;
+            return tasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LoaderTask next() {
+        String host = rotation.pollFirst();
+        if (host == null) {
+            return null;
+        }
+        PriorityQueue<LoaderTask> queue = hosts.get(host);
+        LoaderTask task = queue.poll();
+        if (queue.isEmpty()) {
+            hosts.remove(host);
+        } else {
+            rotation.addLast(host);
+        }
+        size--;
+        return task;
+    }
+}
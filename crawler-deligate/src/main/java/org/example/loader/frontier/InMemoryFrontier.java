@@ -0,0 +1,54 @@
+package org.example.loader.frontier;
+
+import org.example.loader.events.LoaderTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class InMemoryFrontier implements Frontier {
+
+    private final BlockingQueue<LoaderTask> queue;
+
+    public InMemoryFrontier() {
+        this(CrawlPolicy.PRIORITY);
+    }
+
+    public InMemoryFrontier(CrawlPolicy policy) {
+        this.queue = new PriorityBlockingQueue<>(11, policy.comparator());
+    }
+
+    @Override
+    public void offer(LoaderTask task) {
+        queue.add(task);
+    }
+
+    @Override
+    public LoaderTask poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public LoaderTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    @Override
+    public long size() {
+        return queue.size();
+    }
+
+    @Override
+    public List<LoaderTask> snapshot() {
+        return new ArrayList<>(queue);
+    }
+
+    @Override
+    public List<LoaderTask> close() {
+        List<LoaderTask> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        return remaining;
+    }
+}
@@ -0,0 +1,442 @@
+package org.example.loader.frontier;
+
+import org.example.loader.events.LoaderTask;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps a bounded hot window of tasks in memory and spills the rest to an
+ * append-only log of memory-mapped segments. Every task that can be written
+ * is appended to the log when it is offered, a task that fits the hot window
+ * is kept in memory as well and the read position skips its record. A
+ * checkpoint stores the read position together with the tasks that were in
+ * memory or in flight, so after a crash the checkpoint and the log behind it
+ * hold every task once; tasks finished since the checkpoint run again. A
+ * record torn by a crash fails its checksum and ends the log.
+ * <p>
+ * Only tasks without callbacks or bound to a named handler can be written to
+ * disk, and only tasks bound to a named handler leave memory: any other task
+ * may still get a callback or be waited on, so it waits in memory next to its
+ * record, which only serves a crash. Tasks with lambda callbacks wait in
+ * memory for room in the hot window and are only bounded by the producers.
+ */
+public class SegmentLogFrontier implements Frontier {
+    private static final Logger log = getLogger(SegmentLogFrontier.class);
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int CHECKPOINT_MAGIC = 0x43524b31;
+    // length and checksum of the payload
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int hotWindow;
+    private final int segmentSize;
+    private final Frontier hot;
+    private final Deque<LoaderTask> overflow = new ArrayDeque<>();
+    private final Deque<Resident> residents = new ArrayDeque<>();
+    private final Set<LoaderTask> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final AtomicLong spilled = new AtomicLong();
+    private final List<TaskRecord> recovered = new ArrayList<>();
+
+    private Function<TaskRecord, LoaderTask> taskFactory;
+    private MappedByteBuffer writeSegment;
+    private int writeIndex;
+    private MappedByteBuffer readSegment;
+    private int readIndex;
+    private boolean recoveryDone;
+
+    public SegmentLogFrontier(Path directory, int hotWindow, int segmentSize) {
+        this(directory, hotWindow, segmentSize, new InMemoryFrontier());
+    }
+
+    public SegmentLogFrontier(Path directory, int hotWindow, int segmentSize, Frontier hot) {
+        this.directory = directory;
+        this.hot = hot;
+        this.hotWindow = Math.max(1, hotWindow);
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open frontier in " + directory, e);
+        }
+    }
+
+    @Override
+    public void bind(Function<TaskRecord, LoaderTask> taskFactory) {
+        this.taskFactory = taskFactory;
+    }
+
+    @Override
+    public synchronized long recover() {
+        if (recoveryDone) {
+            return 0L;
+        }
+        recoveryDone = true;
+        recovered.forEach(record -> hot.offer(taskFactory.apply(record)));
+        long count = recovered.size() + spilled.get();
+        recovered.clear();
+        if (count > 0) {
+            log.info("Recovered {} tasks from {}", count, directory);
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void offer(LoaderTask task) {
+        // restored records become tasks only once recover() counted them
+        if (recoveryDone) {
+            fill();
+        }
+        boolean room = hot.size() < hotWindow && overflow.isEmpty() && spilled.get() == 0;
+        long location = task.isPersistable() ? append(TaskCodec.encode(new TaskRecord(task.getLink(), task.getHandler()))) : -1L;
+        if (location < 0) {
+            if (room) {
+                hot.offer(task);
+            } else {
+                overflow.addLast(task);
+            }
+            return;
+        }
+        if (room) {
+            // nothing is left unread, the record is only there for a crash
+            skipToEnd();
+            hot.offer(task);
+        } else if (task.getHandler() != null) {
+            task.markSpilled();
+            spilled.incrementAndGet();
+        } else {
+            // read in turn like any record, but the task stays the same object
+            residents.addLast(new Resident(location, task));
+            spilled.incrementAndGet();
+        }
+    }
+
+    @Override
+    public LoaderTask poll() {
+        refill();
+        return lease(hot.poll());
+    }
+
+    @Override
+    public LoaderTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        refill();
+        LoaderTask task = hot.poll(timeout, unit);
+        if (task == null) {
+            refill();
+            task = hot.poll();
+        }
+        return lease(task);
+    }
+
+    @Override
+    public long size() {
+        synchronized (this) {
+            return hot.size() + overflow.size() + spilled.get();
+        }
+    }
+
+    @Override
+    public void release(LoaderTask task) {
+        synchronized (leased) {
+            leased.remove(task);
+        }
+    }
+
+    @Override
+    public synchronized List<LoaderTask> snapshot() {
+        List<LoaderTask> tasks = new ArrayList<>(hot.snapshot());
+        tasks.addAll(overflow);
+        residents.forEach(resident -> tasks.add(resident.task()));
+        return tasks;
+    }
+
+    @Override
+    public synchronized void checkpoint() {
+        List<byte[]> records = new ArrayList<>();
+        synchronized (leased) {
+            leased.forEach(task -> encode(task, records));
+        }
+        hot.snapshot().forEach(task -> encode(task, records));
+        // only tasks that are not in the log wait in the overflow
+        overflow.forEach(task -> encode(task, records));
+
+        try {
+            if (writeSegment != null) {
+                writeSegment.force();
+            }
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(readIndex);
+                out.writeInt(readSegment == null ? 0 : readSegment.position());
+                out.writeInt(records.size());
+                for (byte[] record : records) {
+                    out.writeInt(record.length);
+                    out.write(record);
+                }
+            }
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteSegmentsBefore(readIndex);
+        } catch (IOException e) {
+            log.error("Cannot checkpoint frontier in {}", directory, e);
+        }
+    }
+
+    @Override
+    public synchronized List<LoaderTask> close() {
+        if (writeSegment != null) {
+            writeSegment.force();
+        }
+        List<LoaderTask> remaining = new ArrayList<>(hot.close());
+        remaining.addAll(overflow);
+        overflow.clear();
+        residents.forEach(resident -> remaining.add(resident.task()));
+        residents.clear();
+        return remaining;
+    }
+
+    private LoaderTask lease(LoaderTask task) {
+        if (task != null) {
+            synchronized (leased) {
+                leased.add(task);
+            }
+        }
+        return task;
+    }
+
+    private synchronized void refill() {
+        if (hot.size() > hotWindow / 2) {
+            return;
+        }
+        fill();
+    }
+
+    private void fill() {
+        while (!overflow.isEmpty() && hot.size() < hotWindow) {
+            hot.offer(overflow.pollFirst());
+        }
+        while (spilled.get() > 0 && hot.size() < hotWindow) {
+            byte[] record = readRecord();
+            LoaderTask task = record == null ? null : toTask(record);
+            if (task == null) {
+                log.warn("Frontier log in {} ended before {} expected tasks", directory, spilled.get());
+                residents.forEach(resident -> overflow.addLast(resident.task()));
+                residents.clear();
+                spilled.set(0);
+                skipToEnd();
+                break;
+            }
+            spilled.decrementAndGet();
+            hot.offer(task);
+        }
+    }
+
+    private LoaderTask toTask(byte[] record) {
+        Resident resident = residents.peekFirst();
+        if (resident != null && resident.location() == readLocation(record)) {
+            return residents.pollFirst().task();
+        }
+        try {
+            return taskFactory.apply(TaskCodec.decode(record));
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            log.warn("Cannot decode task record in {}", directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return location of the record, or -1 if it was not written
+     */
+    private long append(byte[] record) {
+        int required = RECORD_HEADER + record.length;
+        if (required + Integer.BYTES > segmentSize) {
+            log.warn("Task record of {} bytes does not fit a frontier segment", record.length);
+            return -1L;
+        }
+        try {
+            if (writeSegment.remaining() < required + Integer.BYTES) {
+                writeSegment.force();
+                writeIndex++;
+                writeSegment = map(writeIndex);
+            }
+        } catch (IOException e) {
+            log.error("Cannot roll frontier segment in {}", directory, e);
+            return -1L;
+        }
+        // the length goes last, a record torn before it reads as the end of the log
+        int position = writeSegment.position();
+        writeSegment.put(position + RECORD_HEADER, record);
+        writeSegment.putInt(position + Integer.BYTES, checksum(record));
+        writeSegment.putInt(position, record.length);
+        writeSegment.position(position + required);
+        return location(writeIndex, position);
+    }
+
+    private void skipToEnd() {
+        try {
+            if (readIndex != writeIndex) {
+                readIndex = writeIndex;
+                readSegment = map(readIndex);
+            }
+            readSegment.position(writeSegment.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] readRecord() {
+        try {
+            while (true) {
+                int length = recordLength(readSegment);
+                if (length > 0) {
+                    readSegment.position(readSegment.position() + RECORD_HEADER);
+                    byte[] record = new byte[length];
+                    readSegment.get(record);
+                    return record;
+                }
+                if (readIndex >= writeIndex) {
+                    return null;
+                }
+                readIndex++;
+                readSegment = map(readIndex);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open() throws IOException {
+        List<Integer> segments = segmentIndexes();
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        int readPosition = 0;
+        readIndex = segments.isEmpty() ? 0 : segments.getFirst();
+        if (Files.exists(checkpoint)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+                if (in.readInt() != CHECKPOINT_MAGIC) {
+                    throw new IOException("Corrupted frontier checkpoint " + checkpoint);
+                }
+                readIndex = in.readInt();
+                readPosition = in.readInt();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    recovered.add(TaskCodec.decode(in.readNBytes(in.readInt())));
+                }
+            }
+        }
+        writeIndex = segments.isEmpty() ? readIndex : Math.max(readIndex, segments.getLast());
+
+        readSegment = map(readIndex);
+        readSegment.position(readPosition);
+
+        // count what is still unread and find the end of the log
+        MappedByteBuffer scan = readSegment.duplicate();
+        for (int index = readIndex; index <= writeIndex; index++) {
+            if (index != readIndex) {
+                scan = map(index);
+            }
+            for (int length = recordLength(scan); length > 0; length = recordLength(scan)) {
+                scan.position(scan.position() + RECORD_HEADER + length);
+                spilled.incrementAndGet();
+            }
+        }
+        writeSegment = writeIndex == readIndex ? map(writeIndex) : scan;
+        writeSegment.position(scan.position());
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        Path segment = directory.resolve(SEGMENT_PREFIX + "%08d".formatted(index) + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private List<Integer> segmentIndexes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                  .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                  .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                  .sorted()
+                  .toList();
+        }
+    }
+
+    private void deleteSegmentsBefore(int index) throws IOException {
+        for (int segment : segmentIndexes()) {
+            if (segment < index) {
+                Files.deleteIfExists(directory.resolve(SEGMENT_PREFIX + "%08d".formatted(segment) + SEGMENT_SUFFIX));
+            }
+        }
+    }
+
+    // the record was just read, so it ends at the read position
+    private long readLocation(byte[] record) {
+        return location(readIndex, readSegment.position() - record.length - RECORD_HEADER);
+    }
+
+    /**
+     * @return length of the record at the position of the segment, or -1 at
+     * the end of the segment or at a torn record
+     */
+    private static int recordLength(MappedByteBuffer segment) {
+        int position = segment.position();
+        if (segment.remaining() < RECORD_HEADER) {
+            return -1;
+        }
+        int length = segment.getInt(position);
+        if (length <= 0 || length > segment.remaining() - RECORD_HEADER) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(position + RECORD_HEADER, length));
+        return (int) crc.getValue() == segment.getInt(position + Integer.BYTES) ? length : -1;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static long location(int index, int position) {
+        return (long) index << Integer.SIZE | position;
+    }
+
+    private static void encode(LoaderTask task, List<byte[]> records) {
+        if (task.isPersistable() && !task.isDone()) {
+            records.add(TaskCodec.encode(new TaskRecord(task.getLink(), task.getHandler())));
+        }
+    }
+
+    private record Resident(long location, LoaderTask task) {
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.loader.frontier;
+
+import org.example.loader.Link;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+public final class TaskCodec {
+
+    private static final byte VERSION = 2;
+
+    private TaskCodec() {
+    }
+
+    public static byte[] encode(TaskRecord record) {
+        Link link = record.link();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, record.handler());
+            writeString(out, link.getMethod());
+            writeString(out, link.getUrl());
+            writeString(out, link.getBody());
+            out.writeInt(link.getPriority());
+            out.writeInt(link.getDepth());
+            writeMap(out, link.getHeaders());
+            writeMap(out, link.getParameters());
+            out.writeInt(link.getCookies().size());
+            for (Link.Cookie cookie : link.getCookies().values()) {
+                writeString(out, cookie.key());
+                writeString(out, cookie.value());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TaskRecord decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported task record version " + version);
+            }
+            String handler = readString(in);
+            Link.HttpMethod method = Link.HttpMethod.valueOf(readString(in));
+            Link link = new Link.Builder(readString(in)).build();
+            link.setMethod(method);
+            link.setBody(readString(in));
+            if (version >= 2) {
+                link.setPriority(in.readInt());
+                link.setDepth(in.readInt());
+            }
+            readMap(in, link::addHeader);
+            readMap(in, link::addParameter);
+            int cookies = in.readInt();
+            for (int i = 0; i < cookies; i++) {
+                Link.Cookie cookie = new Link.Cookie(readString(in), readString(in));
+                link.getCookies().put(cookie.key(), cookie);
+            }
+            return new TaskRecord(link, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static void readMap(DataInputStream in, BiConsumer<String, String> map) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            map.accept(readString(in), readString(in));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
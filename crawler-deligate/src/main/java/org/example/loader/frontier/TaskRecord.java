@@ -0,0 +1,6 @@
+package org.example.loader.frontier;
+
+import org.example.loader.Link;
+
+public record TaskRecord(Link link, String handler) {
+}
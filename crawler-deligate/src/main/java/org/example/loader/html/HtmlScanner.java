@@ -0,0 +1,151 @@
+package org.example.loader.html;
+
+import org.jsoup.parser.Parser;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only scan over the start tags of a page, without building a DOM.
+ * It knows about comments, quoted attribute values and the raw text of
+ * {@code script} and {@code style}, but not about nesting, so it is meant
+ * for pulling attributes out of a page, not for selectors with combinators.
+ * <p>
+ * Attributes are only collected for the requested tag names.
+ */
+public final class HtmlScanner {
+
+    private static final Set<String> RAW_TEXT = Set.of("script", "style", "textarea", "title");
+
+    private HtmlScanner() {
+    }
+
+    /**
+     * @param names lower case tag names to report, empty for every tag
+     */
+    public static void scan(String html, Set<String> names, Consumer<HtmlTag> consumer) {
+        int length = html.length();
+        int i = 0;
+        while (i < length) {
+            int open = html.indexOf('<', i);
+            if (open < 0 || open + 1 >= length) {
+                return;
+            }
+            char next = html.charAt(open + 1);
+            if (html.startsWith("<!--", open)) {
+                int end = html.indexOf("-->", open + 4);
+                i = end < 0 ? length : end + 3;
+                continue;
+            }
+            if (next == '!' || next == '?' || next == '/') {
+                int end = html.indexOf('>', open + 2);
+                i = end < 0 ? length : end + 1;
+                continue;
+            }
+            if (!isLetter(next)) {
+                i = open + 1;
+                continue;
+            }
+            int p = open + 1;
+            while (p < length && isNameChar(html.charAt(p))) {
+                p++;
+            }
+            String name = html.substring(open + 1, p).toLowerCase(Locale.ROOT);
+            boolean wanted = names.isEmpty() || names.contains(name);
+            Map<String, String> attributes = wanted ? new LinkedHashMap<>() : null;
+            p = attributes(html, p, attributes);
+            if (wanted) {
+                consumer.accept(new HtmlTag(name, attributes.isEmpty() ? Collections.emptyMap() : attributes));
+            }
+            i = RAW_TEXT.contains(name) ? skipRawText(html, p, name) : p;
+        }
+    }
+
+    // returns the index after the closing '>', values are only built when collected
+    private static int attributes(String html, int p, Map<String, String> out) {
+        int length = html.length();
+        while (p < length) {
+            char c = html.charAt(p);
+            if (c == '>') {
+                return p + 1;
+            }
+            if (isSpace(c) || c == '/' || c == '=') {
+                p++;
+                continue;
+            }
+            int nameStart = p;
+            while (p < length && !isSpace(c = html.charAt(p)) && c != '=' && c != '>' && c != '/') {
+                p++;
+            }
+            int nameEnd = p;
+            p = skipSpaces(html, p);
+            int valueStart = p;
+            int valueEnd = p;
+            if (p < length && html.charAt(p) == '=') {
+                p = skipSpaces(html, p + 1);
+                if (p < length && ((c = html.charAt(p)) == '"' || c == '\'')) {
+                    int end = html.indexOf(c, p + 1);
+                    valueStart = p + 1;
+                    valueEnd = end < 0 ? length : end;
+                    p = Math.min(length, valueEnd + 1);
+                } else {
+                    valueStart = p;
+                    while (p < length && !isSpace(c = html.charAt(p)) && c != '>') {
+                        p++;
+                    }
+                    valueEnd = p;
+                }
+            }
+            if (out != null) {
+                String name = html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+                // like browsers, the first of repeated attributes wins
+                out.putIfAbsent(name, unescape(html.substring(valueStart, valueEnd)));
+            }
+        }
+        return length;
+    }
+
+    private static int skipRawText(String html, int p, String name) {
+        int length = html.length();
+        while (true) {
+            int close = html.indexOf("</", p);
+            if (close < 0) {
+                return length;
+            }
+            int after = close + 2 + name.length();
+            if (html.regionMatches(true, close + 2, name, 0, name.length())
+                  && (after >= length || !isNameChar(html.charAt(after)))) {
+                int end = html.indexOf('>', after);
+                return end < 0 ? length : end + 1;
+            }
+            p = close + 2;
+        }
+    }
+
+    private static String unescape(String value) {
+        return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+    }
+
+    private static int skipSpaces(String html, int p) {
+        while (p < html.length() && isSpace(html.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == ':' || c == '_';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.loader.html;
+
+import java.util.Map;
+
+/**
+ * Start tag found by {@link HtmlScanner}. Names are lower case, attribute
+ * values have their character references decoded.
+ */
+public record HtmlTag(String name, Map<String, String> attributes) {
+
+    public String attr(String name) {
+        return attributes.get(name);
+    }
+
+    public boolean hasAttr(String name) {
+        return attributes.containsKey(name);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.loader.html;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Collects the {@code a[href]} targets of a page as absolute http(s) URLs,
+ * in document order and without duplicates. A {@code <base href>} changes
+ * the base URL like it does in a browser. URLs are normalized: scheme and
+ * host in lower case, default port, dot segments and fragment removed.
+ */
+public final class LinkExtractor {
+
+    private static final Set<String> TAGS = Set.of("a", "area", "base");
+
+    private LinkExtractor() {
+    }
+
+    public static List<String> links(String html, String baseUrl) {
+        Set<String> links = new LinkedHashSet<>();
+        URI[] base = {parse(baseUrl)};
+        boolean[] baseSeen = {false};
+        HtmlScanner.scan(html, TAGS, tag -> {
+            String href = tag.attr("href");
+            if (href == null) {
+                return;
+            }
+            if (tag.name().equals("base")) {
+                // only the first base element counts
+                if (!baseSeen[0]) {
+                    baseSeen[0] = true;
+                    URI resolved = resolve(base[0], href);
+                    if (resolved != null) {
+                        base[0] = resolved;
+                    }
+                }
+                return;
+            }
+            add(links, resolve(base[0], href));
+        });
+        return new ArrayList<>(links);
+    }
+
+    /**
+     * Same as {@link #links(String, String)} for a page that is already
+     * parsed, jsoup has applied the base element to the base URI.
+     */
+    public static List<String> links(Document document) {
+        Set<String> links = new LinkedHashSet<>();
+        for (Element anchor : document.select("a[href], area[href]")) {
+            add(links, resolve(parse(anchor.baseUri()), anchor.attr("href")));
+        }
+        return new ArrayList<>(links);
+    }
+
+    /**
+     * @return the normalized absolute URL, or {@code null} for links that
+     * cannot be crawled: other schemes, fragments of the same page or
+     * malformed URLs
+     */
+    public static String normalize(String baseUrl, String href) {
+        URI uri = resolve(parse(baseUrl), href);
+        return uri == null ? null : normalize(uri);
+    }
+
+    private static void add(Set<String> links, URI uri) {
+        if (uri != null) {
+            String url = normalize(uri);
+            if (url != null) {
+                links.add(url);
+            }
+        }
+    }
+
+    private static URI resolve(URI base, String href) {
+        String trimmed = href.strip();
+        if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+            return null;
+        }
+        URI uri = parse(trimmed);
+        if (uri == null) {
+            return null;
+        }
+        if (uri.isAbsolute()) {
+            return uri;
+        }
+        if (base == null || !base.isAbsolute() || base.isOpaque()) {
+            return null;
+        }
+        try {
+            return base.resolve(uri);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String normalize(URI uri) {
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            return null;
+        }
+        URI normalized = uri.normalize();
+        StringBuilder url = new StringBuilder(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+            url.append(':').append(port);
+        }
+        String path = normalized.getRawPath();
+        url.append(path == null || path.isEmpty() ? "/" : path);
+        if (normalized.getRawQuery() != null) {
+            url.append('?').append(normalized.getRawQuery());
+        }
+        return url.toString();
+    }
+
+    // hand-written pages often carry spaces in their hrefs
+    private static URI parse(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            return URI.create(url.indexOf(' ') < 0 ? url : url.replace(" ", "%20"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
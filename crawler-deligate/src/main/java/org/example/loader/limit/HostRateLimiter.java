@@ -0,0 +1,96 @@
+package org.example.loader.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket of one host with AIMD adaptation: the rate is halved on 429/503
+ * or when recent latency climbs well above its baseline, and grows by one
+ * request per second for every healthy second up to the configured ceiling.
+ */
+public class HostRateLimiter {
+
+    private static final long ADJUST_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double ADDITIVE_INCREASE = 1.0;
+    private static final double LATENCY_THRESHOLD = 2.0;
+    private static final double BASELINE_ALPHA = 0.05;
+    private static final double RECENT_ALPHA = 0.3;
+
+    private final TokenBucket bucket;
+    private final double floor;
+    private final double ceiling;
+    private final boolean adaptive;
+
+    private double baselineLatency;
+    private double recentLatency;
+    private double intervalEwma;
+    private long lastReserve;
+    private long lastAdjust;
+    private long lastUsed;
+
+    public HostRateLimiter(RateLimiterSettings settings, long now) {
+        double initialRate = settings.requestsPerSecond() > 0 ? settings.requestsPerSecond() : Double.POSITIVE_INFINITY;
+        this.bucket = new TokenBucket(initialRate, settings.burst(), now);
+        this.floor = settings.minRequestsPerSecond();
+        this.ceiling = Math.max(initialRate, settings.maxRequestsPerSecond() > 0 ? settings.maxRequestsPerSecond() : initialRate);
+        this.adaptive = settings.adaptive();
+        this.lastAdjust = now;
+        this.lastUsed = now;
+    }
+
+    public long reserve(long now) {
+        synchronized (this) {
+            if (lastReserve != 0) {
+                intervalEwma = ewma(intervalEwma, now - lastReserve, RECENT_ALPHA);
+            }
+            lastReserve = now;
+            lastUsed = now;
+        }
+        return bucket.reserve(now);
+    }
+
+    public synchronized void onResponse(int statusCode, long latencyNanos, long now) {
+        lastUsed = now;
+        if (!adaptive) {
+            return;
+        }
+        boolean throttled = statusCode == 429 || statusCode == 503;
+        if (statusCode > 0) {
+            recentLatency = ewma(recentLatency, latencyNanos, RECENT_ALPHA);
+            if (!throttled) {
+                baselineLatency = ewma(baselineLatency, latencyNanos, BASELINE_ALPHA);
+            }
+        }
+        boolean congested = baselineLatency > 0 && recentLatency > baselineLatency * LATENCY_THRESHOLD;
+
+        if (now - lastAdjust < ADJUST_INTERVAL) {
+            return;
+        }
+        double rate = bucket.getRate();
+        if (throttled || congested) {
+            double current = Double.isInfinite(rate) ? observedRate() : rate;
+            bucket.setRate(Math.max(floor, current * DECREASE_FACTOR), now);
+            lastAdjust = now;
+        } else if (rate < ceiling) {
+            double increased = rate + ADDITIVE_INCREASE;
+            bucket.setRate(increased >= ceiling ? ceiling : increased, now);
+            lastAdjust = now;
+        }
+    }
+
+    public double getRate() {
+        return bucket.getRate();
+    }
+
+    public synchronized boolean isIdle(long now, long idleNanos) {
+        return now - lastUsed > idleNanos;
+    }
+
+    private double observedRate() {
+        return intervalEwma > 0 ? TimeUnit.SECONDS.toNanos(1) / intervalEwma : ADDITIVE_INCREASE;
+    }
+
+    private static double ewma(double current, double sample, double alpha) {
+        return current == 0 ? sample : current + alpha * (sample - current);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.loader.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiter {
+
+    // long enough that a host slowed down by AIMD keeps its rate between bursts
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toNanos(10);
+
+    private final RateLimiterSettings settings;
+    private final Semaphore concurrency;
+    private final Map<String, HostRateLimiter> hosts = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimiterSettings settings) {
+        this.settings = settings;
+        this.concurrency = new Semaphore(settings.maxConcurrentRequests());
+    }
+
+    public void acquireSlot() throws InterruptedException {
+        concurrency.acquire();
+    }
+
+    public boolean tryAcquireSlot() {
+        return concurrency.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        concurrency.release();
+    }
+
+    public long reserve(String host) {
+        long now = System.nanoTime();
+        return host(host, now).reserve(now);
+    }
+
+    public void onResponse(String host, int statusCode, long latencyNanos) {
+        long now = System.nanoTime();
+        host(host, now).onResponse(statusCode, latencyNanos, now);
+    }
+
+    public double getRate(String host) {
+        HostRateLimiter limiter = hosts.get(host);
+        return limiter == null ? settings.requestsPerSecond() : limiter.getRate();
+    }
+
+    /**
+     * Drops the limiters of hosts without requests or responses for ten
+     * minutes, a host seen again starts from the configured rate.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (String host : hosts.keySet()) {
+            hosts.computeIfPresent(host, (h, limiter) -> limiter.isIdle(now, IDLE_TIMEOUT) ? null : limiter);
+        }
+    }
+
+    public int hosts() {
+        return hosts.size();
+    }
+
+    private HostRateLimiter host(String host, long now) {
+        return hosts.computeIfAbsent(host, h -> new HostRateLimiter(settings, now));
+    }
+}
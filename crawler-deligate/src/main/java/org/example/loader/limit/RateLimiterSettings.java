@@ -0,0 +1,9 @@
+package org.example.loader.limit;
+
+public record RateLimiterSettings(double requestsPerSecond,
+                                  int burst,
+                                  int maxConcurrentRequests,
+                                  boolean adaptive,
+                                  double minRequestsPerSecond,
+                                  double maxRequestsPerSecond) {
+}
@@ -0,0 +1,52 @@
+package org.example.loader.limit;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double capacity;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double rate, double capacity, long now) {
+        this.rate = rate;
+        this.capacity = Math.max(1.0, capacity);
+        this.tokens = this.capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes one token, going into debt if the bucket is empty, and returns how
+     * long the caller has to wait before its token is actually available.
+     */
+    public synchronized long reserve(long now) {
+        if (Double.isInfinite(rate)) {
+            return 0L;
+        }
+        refill(now);
+        tokens -= 1.0;
+        if (tokens >= 0) {
+            return 0L;
+        }
+        return (long) (-tokens / rate * NANOS_PER_SECOND);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized void setRate(double rate, long now) {
+        refill(now);
+        this.rate = rate;
+    }
+
+    private void refill(long now) {
+        if (!Double.isInfinite(rate) && now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / NANOS_PER_SECOND * rate);
+        }
+        lastRefill = now;
+    }
+}
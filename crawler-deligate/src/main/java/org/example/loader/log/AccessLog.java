@@ -0,0 +1,217 @@
+package org.example.loader.log;
+
+import org.example.loader.Link;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Access log written by a single background thread. Request threads only put
+ * a record into a ring buffer, formatting and file I/O happen in batches on
+ * the writer. Records that do not fit into the buffer are dropped and counted.
+ * <p>
+ * One line per request, tab separated:
+ * {@code epochMillis method status latencyMicros bytes url}. Failed requests
+ * are always written, successful ones according to the sample rate. The URL
+ * is built on the writer thread, so a link changed right after its response
+ * may be logged with the changed parameters.
+ */
+public class AccessLog implements AutoCloseable {
+    private static final Logger log = getLogger(AccessLog.class);
+
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private record Entry(long time, Link link, int status, long latencyMicros, long bytes) {
+    }
+
+    private final Path path;
+    private final double sampleRate;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final RingBuffer<Entry> buffer;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private FileChannel channel;
+    private volatile boolean closed;
+
+    public AccessLog(AccessLogSettings settings) {
+        this.path = Path.of(settings.path());
+        this.sampleRate = settings.sampleRate();
+        this.maxFileSize = settings.maxFileSize();
+        this.maxFiles = Math.max(1, settings.maxFiles());
+        this.buffer = new RingBuffer<>(settings.bufferSize());
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open access log " + path, e);
+        }
+        writer = Thread.ofPlatform().daemon().name("access-log-writer").start(this::drain);
+    }
+
+    public void append(Link link, int status, long latencyNanos, long bytes) {
+        if (closed) {
+            return;
+        }
+        boolean failed = status == 0 || status >= 400;
+        if (!failed && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        if (!buffer.offer(new Entry(System.currentTimeMillis(), link, status, latencyNanos / 1000L, bytes))) {
+            dropped.increment();
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Access log: {} written, {} dropped, {} sampled out", written(), dropped(), sampledOut());
+    }
+
+    private void drain() {
+        StringBuilder lines = new StringBuilder(BATCH_SIZE * 128);
+        while (true) {
+            boolean stopping = closed;
+            int polled = 0;
+            int count = 0;
+            Entry entry;
+            while (polled < BATCH_SIZE && (entry = buffer.poll()) != null) {
+                polled++;
+                int mark = lines.length();
+                try {
+                    format(entry, lines);
+                    count++;
+                } catch (RuntimeException e) {
+                    lines.setLength(mark);
+                    dropped.increment();
+                }
+            }
+            if (count > 0) {
+                if (write(lines)) {
+                    written.add(count);
+                } else {
+                    dropped.add(count);
+                }
+                lines.setLength(0);
+            }
+            if (polled > 0) {
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(IDLE_PARK);
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close access log {}", path, e);
+        }
+    }
+
+    private static void format(Entry entry, StringBuilder lines) {
+        lines.append(entry.time()).append('\t')
+              .append(entry.link().getMethod()).append('\t')
+              .append(entry.status()).append('\t')
+              .append(entry.latencyMicros()).append('\t')
+              .append(entry.bytes()).append('\t')
+              .append(entry.link().buildUrl()).append('\n');
+    }
+
+    /**
+     * @return false when the batch was lost
+     */
+    private boolean write(StringBuilder lines) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(lines));
+        try {
+            // a failed roll or reopen is tried again with the next batch
+            if (!channel.isOpen()) {
+                channel = open();
+            }
+            if (channel.size() + bytes.remaining() > maxFileSize && channel.size() > 0) {
+                try {
+                    roll();
+                } catch (IOException e) {
+                    log.warn("Cannot roll access log {}", path, e);
+                }
+            }
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Cannot write access log {}", path, e);
+            return false;
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        try {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path source = i == 1 ? path : rolled(i - 1);
+                if (Files.exists(source)) {
+                    Files.move(source, rolled(i), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles == 1) {
+                Files.deleteIfExists(path);
+            }
+        } finally {
+            // when the files could not be moved the current one keeps growing
+            channel = open();
+        }
+    }
+
+    private Path rolled(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.loader.log;
+
+public record AccessLogSettings(String path, double sampleRate, long maxFileSize, int maxFiles, int bufferSize) {
+}
@@ -0,0 +1,45 @@
+package org.example.loader.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class HostMetrics {
+
+    private final String host;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final RateMeter rate = new RateMeter();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    HostMetrics(String host) {
+        this.host = host;
+    }
+
+    void onResponse(int statusCode, long latencyNanos) {
+        requests.increment();
+        rate.mark();
+        latency.recordNanos(latencyNanos);
+        if (statusCode == 0 || statusCode >= 400) {
+            errors.increment();
+        }
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public double requestRate() {
+        return rate.rate();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+}
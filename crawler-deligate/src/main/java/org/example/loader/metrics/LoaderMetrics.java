@@ -0,0 +1,282 @@
+package org.example.loader.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and latency histograms of one loader. Everything is updated
+ * without locks from the request threads and read by exporters.
+ * <p>
+ * Latency phases: connect is only seen by {@code Loader}, the JDK client
+ * hides it inside time to first byte.
+ */
+public class LoaderMetrics {
+
+    public static final String OTHER_HOSTS = "other";
+    private static final int MAX_HOSTS = 1000;
+
+    private final String name;
+
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram firstByte = new LatencyHistogram();
+    private final LatencyHistogram body = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram callback = new LatencyHistogram();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesDecoded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDenied = new LongAdder();
+    private final LongAdder circuitsOpened = new LongAdder();
+    private final RateMeter rate = new RateMeter();
+
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    private volatile LongSupplier frontierDepth = () -> 0L;
+    private volatile LongSupplier inFlight = () -> 0L;
+    private volatile LongSupplier openCircuits = () -> 0L;
+    private volatile LongSupplier parked = () -> 0L;
+    private volatile LongSupplier handlerBacklog = () -> 0L;
+    private volatile LongSupplier throttled = () -> 0L;
+
+    public LoaderMetrics(String name) {
+        this.name = name;
+    }
+
+    public void gauges(LongSupplier frontierDepth, LongSupplier inFlight) {
+        this.frontierDepth = frontierDepth;
+        this.inFlight = inFlight;
+    }
+
+    public void pipelineGauges(LongSupplier handlerBacklog, LongSupplier throttled) {
+        this.handlerBacklog = handlerBacklog;
+        this.throttled = throttled;
+    }
+
+    public void circuitGauges(LongSupplier openCircuits, LongSupplier parked) {
+        this.openCircuits = openCircuits;
+        this.parked = parked;
+    }
+
+    public void onRequest(long requestBytes) {
+        requests.increment();
+        rate.mark();
+        bytesOut.add(requestBytes);
+    }
+
+    /**
+     * A status code of 0 means the request failed without a response.
+     */
+    public void onResponse(String host, int statusCode, long latencyNanos) {
+        total.recordNanos(latencyNanos);
+        if (statusCode == 0) {
+            failures.increment();
+        } else {
+            statuses.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        }
+        host(host).onResponse(statusCode, latencyNanos);
+    }
+
+    public void onConnect(long nanos) {
+        connect.recordNanos(nanos);
+    }
+
+    public void onFirstByte(long nanos) {
+        firstByte.recordNanos(nanos);
+    }
+
+    public void onBody(long nanos, long wireBytes, long decodedBytes) {
+        body.recordNanos(nanos);
+        bytesIn.add(wireBytes);
+        bytesDecoded.add(decodedBytes);
+    }
+
+    public void onCallback(long nanos) {
+        callback.recordNanos(nanos);
+    }
+
+    public void onDropped() {
+        dropped.increment();
+    }
+
+    public void onCancelled() {
+        cancelled.increment();
+    }
+
+    public void onRetry() {
+        retries.increment();
+    }
+
+    public void onRetryDenied() {
+        retriesDenied.increment();
+    }
+
+    public void onCircuitOpened() {
+        circuitsOpened.increment();
+    }
+
+    private HostMetrics host(String host) {
+        HostMetrics metrics = hosts.get(host);
+        if (metrics != null) {
+            return metrics;
+        }
+        // keeps the number of host series bounded on wide crawls
+        String key = hosts.size() >= MAX_HOSTS ? OTHER_HOSTS : host;
+        return hosts.computeIfAbsent(key, HostMetrics::new);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public LatencyHistogram connect() {
+        return connect;
+    }
+
+    public LatencyHistogram firstByte() {
+        return firstByte;
+    }
+
+    public LatencyHistogram body() {
+        return body;
+    }
+
+    public LatencyHistogram total() {
+        return total;
+    }
+
+    public LatencyHistogram callback() {
+        return callback;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public double requestRate() {
+        return rate.rate();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesDecoded() {
+        return bytesDecoded.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long cancelled() {
+        return cancelled.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return retries refused because the retry budget was spent
+     */
+    public long retriesDenied() {
+        return retriesDenied.sum();
+    }
+
+    public long circuitsOpened() {
+        return circuitsOpened.sum();
+    }
+
+    /**
+     * @return hosts whose circuit is open or half-open
+     */
+    public long openCircuits() {
+        return openCircuits.getAsLong();
+    }
+
+    /**
+     * @return tasks held back by an open circuit
+     */
+    public long parked() {
+        return parked.getAsLong();
+    }
+
+    /**
+     * @return responses waiting for a handler thread
+     */
+    public long handlerBacklog() {
+        return handlerBacklog.getAsLong();
+    }
+
+    /**
+     * @return producers waiting while the frontier is over its high-water mark
+     */
+    public long throttled() {
+        return throttled.getAsLong();
+    }
+
+    public long frontierDepth() {
+        return frontierDepth.getAsLong();
+    }
+
+    public long inFlight() {
+        return inFlight.getAsLong();
+    }
+
+    public long status(int statusCode) {
+        LongAdder count = statuses.get(statusCode);
+        return count == null ? 0L : count.sum();
+    }
+
+    public Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    public Collection<HostMetrics> hosts() {
+        return Collections.unmodifiableCollection(hosts.values());
+    }
+
+    public String summary() {
+        return "requests=" + requests() +
+              " rate=" + String.format("%.1f/s", requestRate()) +
+              " statuses=" + statuses() +
+              " failures=" + failures() +
+              " p50=" + total.percentileMicros(50) / 1000.0 + "ms" +
+              " p99=" + total.percentileMicros(99) / 1000.0 + "ms" +
+              " ttfb.p99=" + firstByte.percentileMicros(99) / 1000.0 + "ms" +
+              " callback.p99=" + callback.percentileMicros(99) / 1000.0 + "ms" +
+              " in=" + bytesIn() + "B out=" + bytesOut() + "B" +
+              " frontier=" + frontierDepth() +
+              " inFlight=" + inFlight() +
+              " handlerBacklog=" + handlerBacklog() +
+              " throttled=" + throttled() +
+              " dropped=" + dropped() +
+              " cancelled=" + cancelled() +
+              " retries=" + retries() +
+              " retriesDenied=" + retriesDenied() +
+              " circuitsOpened=" + circuitsOpened() +
+              " parked=" + parked();
+    }
+}
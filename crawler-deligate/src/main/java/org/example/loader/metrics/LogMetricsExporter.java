@@ -0,0 +1,14 @@
+package org.example.loader.metrics;
+
+import org.slf4j.Logger;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+public class LogMetricsExporter implements MetricsExporter {
+    private static final Logger log = getLogger(LogMetricsExporter.class);
+
+    @Override
+    public void export(LoaderMetrics metrics) {
+        log.info("[{}] {}", metrics.name(), metrics.summary());
+    }
+}
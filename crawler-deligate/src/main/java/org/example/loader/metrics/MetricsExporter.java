@@ -0,0 +1,19 @@
+package org.example.loader.metrics;
+
+/**
+ * Receives the metrics of every loader that starts while the exporter is
+ * registered in {@link MetricsExporters}. Pull based exporters register their
+ * meters in {@link #bind}, push based ones send in {@link #export}, which is
+ * called every metrics interval and once more before {@link #unbind}.
+ */
+public interface MetricsExporter {
+
+    default void bind(LoaderMetrics metrics) {
+    }
+
+    default void export(LoaderMetrics metrics) {
+    }
+
+    default void unbind(LoaderMetrics metrics) {
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.loader.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class MetricsExporters {
+
+    private static final CopyOnWriteArrayList<MetricsExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+    private MetricsExporters() {
+    }
+
+    public static void register(MetricsExporter exporter) {
+        EXPORTERS.addIfAbsent(exporter);
+    }
+
+    public static void unregister(MetricsExporter exporter) {
+        EXPORTERS.remove(exporter);
+    }
+
+    public static List<MetricsExporter> registered() {
+        return List.copyOf(EXPORTERS);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.loader.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Events per second over the last few completed seconds, kept in a ring of
+ * one second slots.
+ */
+public class RateMeter {
+
+    private static final int SLOTS = 11;
+
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+
+    public void mark() {
+        long second = System.currentTimeMillis() / 1000L;
+        int slot = (int) (second % SLOTS);
+        long stamp = seconds.get(slot);
+        if (stamp != second && seconds.compareAndSet(slot, stamp, second)) {
+            counts.set(slot, 0L);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    public double rate() {
+        long current = System.currentTimeMillis() / 1000L;
+        long events = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long second = seconds.get(slot);
+            if (second < current && second >= current - (SLOTS - 1)) {
+                events += counts.get(slot);
+            }
+        }
+        return events / (double) (SLOTS - 1);
+    }
+}
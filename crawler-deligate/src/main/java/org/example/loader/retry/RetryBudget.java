@@ -0,0 +1,37 @@
+package org.example.loader.retry;
+
+/**
+ * Caps retries to a share of the requests sent. Every request deposits
+ * {@code ratio} of a token, every retry takes a whole one, so with a ratio
+ * of 0.2 retries add at most a fifth to the outbound load. The balance
+ * starts at and never grows beyond {@code reserve}, so a long healthy run
+ * does not save up a burst of retries.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double capacity;
+    private double balance;
+
+    public RetryBudget(double ratio, int reserve) {
+        this.ratio = Math.max(0.0, ratio);
+        this.capacity = Math.max(1, reserve);
+        this.balance = capacity;
+    }
+
+    public synchronized void onRequest() {
+        balance = Math.min(capacity, balance + ratio);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (balance < 1.0) {
+            return false;
+        }
+        balance -= 1.0;
+        return true;
+    }
+
+    public synchronized double balance() {
+        return balance;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.loader.retry;
+
+import org.example.loader.events.FailEvent;
+import org.example.loader.exceptions.BodyTooLargeException;
+import org.example.model.ModelConstants;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed request is worth another attempt and when.
+ * Retried are 408, 429, 5xx other than 501 and I/O errors without a status.
+ * Any other status, 404 included, is final.
+ */
+public class RetryPolicy {
+
+    public static final long NO_RETRY = -1L;
+
+    private final RetrySettings settings;
+
+    public RetryPolicy(RetrySettings settings) {
+        this.settings = settings;
+    }
+
+    public boolean isRetryable(FailEvent event) {
+        int status = event.statusCode();
+        if (status == 0) {
+            Throwable cause = event.cause();
+            return cause instanceof IOException && !(cause instanceof BodyTooLargeException);
+        }
+        return status == 408 || status == 429 || (status >= 500 && status != 501 && status < 600);
+    }
+
+    /**
+     * @param attempt number of retries already made for the task
+     * @return delay in milliseconds before the next attempt or
+     * {@link #NO_RETRY}
+     */
+    public long delay(FailEvent event, int attempt) {
+        if (attempt >= settings.maxRetries() || !isRetryable(event)) {
+            return NO_RETRY;
+        }
+        long backoff = backoff(attempt);
+        long retryAfter = retryAfter(event.header(ModelConstants.RETRY_AFTER_HEADER), System.currentTimeMillis());
+        if (retryAfter > settings.maxDelay()) {
+            return NO_RETRY;
+        }
+        return Math.max(backoff, retryAfter);
+    }
+
+    // "full jitter": uniform between zero and the exponential ceiling
+    long backoff(int attempt) {
+        long ceiling = settings.baseDelay() << Math.min(attempt, 30);
+        if (ceiling <= 0 || ceiling > settings.maxDelay()) {
+            ceiling = settings.maxDelay();
+        }
+        return ceiling <= 0 ? 0L : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @return milliseconds from {@code now} asked for by a Retry-After value,
+     * zero when it is absent or cannot be parsed
+     */
+    static long retryAfter(String value, long now) {
+        if (value == null || value.isBlank()) {
+            return 0L;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0L, Long.parseLong(trimmed) * 1000L);
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an HTTP date
+        }
+        try {
+            long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0L, at - now);
+        } catch (DateTimeParseException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.loader.retry;
+
+public record RetrySettings(int maxRetries,
+                            long baseDelay,
+                            long maxDelay,
+                            double budgetRatio,
+                            int budgetReserve) {
+}
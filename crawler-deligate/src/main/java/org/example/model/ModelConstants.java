@@ -2,7 +2,16 @@ package org.example.model;
 
 public interface ModelConstants {
 
-    String COOKIE_HEADER = "Cookies";
-    String SET_COOKIE_HEADER = "Set-Cookies";
+    String COOKIE_HEADER = "Cookie";
+    String SET_COOKIE_HEADER = "Set-Cookie";
+    String CONTENT_TYPE_HEADER = "Content-Type";
+    String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    String CACHE_CONTROL_HEADER = "Cache-Control";
+    String ETAG_HEADER = "ETag";
+    String LAST_MODIFIED_HEADER = "Last-Modified";
+    String IF_NONE_MATCH_HEADER = "If-None-Match";
+    String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    String RETRY_AFTER_HEADER = "Retry-After";
 
 }
@@ -0,0 +1,36 @@
+package org.example.util;
+
+public final class HashUtils {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private HashUtils() {
+    }
+
+    public static long hash64(CharSequence value) {
+        long hash = SEED ^ value.length();
+        int length = value.length();
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            long block = value.charAt(i)
+                  | (long) value.charAt(i + 1) << 16
+                  | (long) value.charAt(i + 2) << 32
+                  | (long) value.charAt(i + 3) << 48;
+            hash = Long.rotateLeft(hash ^ mix(block), 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) value.charAt(i) << shift;
+        }
+        return mix(hash ^ mix(tail));
+    }
+
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,11 +1,16 @@
 package org.example.util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
 
 public final class JsonUtils {
     private static final ObjectMapper MAPPER = new ObjectMapper();
@@ -14,9 +19,109 @@ public final class JsonUtils {
         try {
             return MAPPER.readTree(json);
         } catch (IOException e) {
-            return new JsonNodeFactory(false).missingNode();
+            return missingNode();
         }
     }
 
+    public static JsonNode parseJson(byte[] json, int offset, int length) {
+        try {
+            return MAPPER.readTree(json, offset, length);
+        } catch (IOException e) {
+            return missingNode();
+        }
+    }
+
+    public static JsonParser createParser(String json) {
+        try {
+            return MAPPER.createParser(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JsonParser createParser(byte[] json, int offset, int length) {
+        try {
+            return MAPPER.createParser(json, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads only the value under {@code pointer}, everything before it is
+     * skipped token by token without building a tree.
+     */
+    public static JsonNode at(JsonParser parser, JsonPointer pointer) {
+        try (parser) {
+            if (parser.nextToken() == null || !seek(parser, pointer)) {
+                return missingNode();
+            }
+            JsonNode node = MAPPER.readTree(parser);
+            return node == null ? missingNode() : node;
+        } catch (IOException e) {
+            return missingNode();
+        }
+    }
+
+    /**
+     * Streams the elements of the array under {@code pointer}, only one element
+     * is materialized at a time.
+     */
+    public static void forEachElement(JsonParser parser, JsonPointer pointer, Consumer<JsonNode> consumer) {
+        try (parser) {
+            if (parser.nextToken() == null || !seek(parser, pointer) || parser.currentToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(MAPPER.readTree(parser));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean seek(JsonParser parser, JsonPointer pointer) throws IOException {
+        while (!pointer.matches()) {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                String property = pointer.getMatchingProperty();
+                boolean found = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    if (name.equals(property)) {
+                        found = true;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+                if (!found) {
+                    return false;
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                int index = pointer.getMatchingIndex();
+                if (index < 0) {
+                    return false;
+                }
+                for (int i = 0; ; i++) {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        return false;
+                    }
+                    if (i == index) {
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            } else {
+                return false;
+            }
+            pointer = pointer.tail();
+        }
+        return true;
+    }
+
+    private static JsonNode missingNode() {
+        return new JsonNodeFactory(false).missingNode();
+    }
 
 }
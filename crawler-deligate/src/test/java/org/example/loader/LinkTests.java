@@ -0,0 +1,91 @@
+package org.example.loader;
+
+import org.example.util.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LinkTests {
+
+    @Test
+    void spellingsOfOneRequestShareKey() {
+        Link link = link("https://example.org/films?year=1979&title=Alien");
+
+        assertEquals(link.key(), link("HTTPS://Example.ORG:443/films?title=Alien&year=1979").key());
+        assertEquals(link.key(), link("https://example.org/a/../films?year=1979&title=Alien#cast").key());
+        assertEquals(link.key(), link("https://example.org/films").addParameter("title", "Alien").addParameter("year", "1979").key());
+        assertEquals("GET https://example.org/films?title=Alien&year=1979", link.normalizedKey());
+    }
+
+    @Test
+    void encodedSpacesShareKey() {
+        LinkKey plus = link("https://example.org/search?q=blade+runner").key();
+
+        assertEquals(plus, link("https://example.org/search?q=blade%20runner").key());
+        assertEquals(plus, link("https://example.org/search").addParameter("q", "blade runner").key());
+    }
+
+    @Test
+    void emptyPathIsRoot() {
+        assertEquals(link("http://example.org/").key(), link("http://example.org").key());
+        assertEquals(link("http://example.org/").key(), link("http://example.org:80").key());
+        assertNotEquals(link("http://example.org/").key(), link("http://example.org:8080/").key());
+    }
+
+    @Test
+    void methodAndBodyArePartOfKey() {
+        Link get = link("https://example.org/films");
+        Link post = link("https://example.org/films");
+        post.setMethod(Link.HttpMethod.POST);
+        LinkKey empty = post.key();
+        post.setBody("{\"page\":2}");
+
+        assertNotEquals(get.key(), empty);
+        assertNotEquals(empty, post.key());
+        assertEquals("POST https://example.org/films " + Long.toHexString(HashUtils.hash64("{\"page\":2}")), post.normalizedKey());
+    }
+
+    @Test
+    void keyFollowsChanges() {
+        Link link = link("https://example.org/films");
+        LinkKey before = link.key();
+        link.addParameter("page", "2");
+
+        assertNotEquals(before, link.key());
+        link.setUrl("https://example.org/series");
+        assertEquals("GET https://example.org/series?page=2", link.normalizedKey());
+        assertEquals(HashUtils.hash64(link.normalizedKey()), link.key().hash64());
+    }
+
+    @Test
+    void hostIsLowerCase() {
+        assertEquals("example.org", link("https://EXAMPLE.org:8443/films").getHost());
+        assertEquals("", link("mailto:someone@example.org").getHost());
+    }
+
+    @Test
+    void builtUrlHasSameKey() {
+        Link link = link("https://example.org/search?lang=en#results")
+              .addParameter("q", "blade runner & more")
+              .addParameter("page", "2");
+        String url = link.buildUrl();
+
+        assertEquals("https://example.org/search?lang=en&q=blade+runner+%26+more&page=2", url);
+        assertEquals(link.key(), link(url).key());
+        assertEquals(url, link(url).buildUrl());
+    }
+
+    @Test
+    void parametersAreReadOnly() {
+        Link link = link("https://example.org/films").addParameter("page", "1");
+
+        assertThrows(UnsupportedOperationException.class, () -> link.getParameters().put("page", "2"));
+        assertEquals("1", link.getParameters().get("page"));
+    }
+
+    private static Link link(String url) {
+        return new Link.Builder(url).build();
+    }
+}
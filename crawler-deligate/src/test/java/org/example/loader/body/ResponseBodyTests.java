@@ -0,0 +1,66 @@
+package org.example.loader.body;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseBodyTests {
+
+    private static final String JSON = "{\"id\":1,\"title\":\"Alien\"}";
+
+    @Test
+    void bufferReturnsAfterLastRelease() throws IOException {
+        BufferPool pool = new BufferPool();
+        ResponseBody body = read(pool);
+        assertTrue(body.retain());
+
+        body.release();
+        assertFalse(body.isReleased());
+        assertEquals(JSON, new String(body.toByteArray(), StandardCharsets.UTF_8));
+
+        body.release();
+        assertTrue(body.isReleased());
+        assertThrows(IllegalStateException.class, body::toByteArray);
+        assertFalse(body.retain());
+
+        pool.acquire(JSON.length());
+        assertEquals(1, pool.reused());
+    }
+
+    @Test
+    void detachedBodyOutlivesRelease() throws IOException {
+        BufferPool pool = new BufferPool();
+        ResponseBody body = read(pool);
+        body.detach();
+        body.release();
+
+        assertFalse(body.isReleased());
+        assertEquals("Alien", body.readJson().get("title").asText());
+        pool.acquire(JSON.length());
+        assertEquals(1, pool.reused());
+    }
+
+    @Test
+    void announcedLengthIsOnlyAHint() throws IOException {
+        BufferPool pool = new BufferPool();
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        ResponseBody body = ResponseBody.read(new ByteArrayInputStream(bytes), Integer.MAX_VALUE - 1L, "application/json", pool);
+        assertEquals(JSON, new String(body.toByteArray(), StandardCharsets.UTF_8));
+        body.release();
+
+        pool.acquire(BufferPool.MAX_BUFFER_SIZE);
+        assertEquals(1, pool.reused());
+    }
+
+    private static ResponseBody read(BufferPool pool) throws IOException {
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        return ResponseBody.read(new ByteArrayInputStream(bytes), bytes.length, "application/json", pool);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.loader.cache;
+
+import org.example.loader.body.BufferPool;
+import org.example.loader.body.ResponseBody;
+import org.example.model.ModelConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpCacheTests {
+
+    private static final String KEY = "https://example.org/films/1";
+
+    @TempDir
+    Path directory;
+
+    private final BufferPool pool = new BufferPool();
+
+    @Test
+    void replacedBodyGetsNewFile() throws IOException {
+        HttpCache cache = new HttpCache(directory, 1 << 20);
+        cache.store(KEY, headers("\"v1\""), ResponseBody.of("first"));
+        CacheEntry first = cache.lookup(KEY);
+        cache.store(KEY, headers("\"v2\""), ResponseBody.of("second"));
+        CacheEntry second = cache.lookup(KEY);
+
+        assertNotEquals(first.id(), second.id());
+        assertEquals("second", cache.read(second, pool).text());
+        assertThrows(NoSuchFileException.class, () -> cache.read(first, pool));
+        assertEquals(1, bodyFiles());
+        assertEquals("second".length(), cache.totalBytes());
+    }
+
+    @Test
+    void revalidationKeepsBodyAndTakesNewValidators() throws IOException {
+        HttpCache cache = new HttpCache(directory, 1 << 20);
+        cache.store(KEY, headers("\"v1\""), ResponseBody.of("cached"));
+        CacheEntry entry = cache.lookup(KEY);
+
+        ResponseBody body = cache.revalidated(entry, headers("\"v2\""), pool);
+
+        assertEquals("cached", body.text());
+        assertEquals("\"v2\"", cache.lookup(KEY).etag());
+        assertEquals(entry.id(), cache.lookup(KEY).id());
+        assertEquals(1, cache.revalidations());
+    }
+
+    @Test
+    void evictedBodiesAreDeleted() throws IOException {
+        HttpCache cache = new HttpCache(directory, 10);
+        cache.store("a", headers("\"a\""), ResponseBody.of("123456"));
+        cache.store("b", headers("\"b\""), ResponseBody.of("7890"));
+        cache.store("c", headers("\"c\""), ResponseBody.of("abcd"));
+
+        assertEquals(2, cache.size());
+        assertEquals(2, bodyFiles());
+        assertEquals(1, cache.evictions());
+    }
+
+    private long bodyFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".body")).count();
+        }
+    }
+
+    private static Map<String, List<String>> headers(String etag) {
+        return Map.of(ModelConstants.ETAG_HEADER, List.of(etag));
+    }
+}
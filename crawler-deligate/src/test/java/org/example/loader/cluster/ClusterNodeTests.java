@@ -0,0 +1,133 @@
+package org.example.loader.cluster;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.loader.HttpClientLoader;
+import org.example.loader.Link;
+import org.example.loader.LoaderSettings;
+import org.example.loader.events.SuccessEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two nodes crawl one server under two host names, {@code 127.0.0.1} is owned
+ * by node a and {@code localhost} by node b. Every page links to the next two
+ * pages of both hosts, so most links reach a node that has already seen them.
+ */
+class ClusterNodeTests {
+
+    private static final int PAGES = 20;
+    private static final Map<String, String> OWNERS = Map.of("127.0.0.1", "a", "localhost", "b");
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Map<String, String> fetchedBy = new ConcurrentHashMap<>();
+    private final AtomicInteger fetchedTwice = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", this::page);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void nodesCrawlOwnedHostsOnceAndTerminate() throws Exception {
+        Partitioner partitioner = new Partitioner() {
+            @Override
+            public String owner(String host) {
+                return OWNERS.get(host);
+            }
+
+            @Override
+            public List<String> nodes() {
+                return List.of("a", "b");
+            }
+        };
+        LocalCoordinator coordinator = new LocalCoordinator();
+        List<ClusterNode> nodes = new ArrayList<>();
+        try (LoopbackTransport transport = new LoopbackTransport()) {
+            for (String node : partitioner.nodes()) {
+                HttpClientLoader loader = new HttpClientLoader(new LoaderSettings.Builder()
+                      .name("cluster-" + node)
+                      .limitRequest(10)
+                      .build());
+                ClusterNode clusterNode = new ClusterNode(node, loader, partitioner, transport, coordinator, 4, 20L);
+                clusterNode.registerHandler("page", event -> onPage(node, event));
+                nodes.add(clusterNode);
+            }
+            // both nodes seed both hosts, the second seed of each host is a duplicate
+            for (ClusterNode node : nodes) {
+                node.addTask(link("127.0.0.1", 0), "page");
+                node.addTask(link("localhost", 0), "page");
+            }
+            nodes.forEach(ClusterNode::startUp);
+
+            coordinator.termination().get(30, TimeUnit.SECONDS);
+            for (ClusterNode node : nodes) {
+                node.completion().get(5, TimeUnit.SECONDS);
+                node.shutDown();
+            }
+        }
+
+        assertEquals(2 * PAGES, fetchedBy.size());
+        assertEquals(0, fetchedTwice.get());
+        fetchedBy.forEach((url, node) -> assertEquals(OWNERS.get(URI.create(url).getHost()), node, url));
+        requests.forEach((page, count) -> assertEquals(1, count.get(), page));
+
+        long sent = nodes.stream().mapToLong(ClusterNode::sent).sum();
+        long received = nodes.stream().mapToLong(ClusterNode::received).sum();
+        assertTrue(sent > 0);
+        assertEquals(sent, received);
+        assertEquals(0, nodes.stream().mapToLong(ClusterNode::rejected).sum());
+    }
+
+    private void onPage(String node, SuccessEvent event) {
+        String url = event.link().buildUrl();
+        if (fetchedBy.putIfAbsent(url, node) != null) {
+            fetchedTwice.incrementAndGet();
+        }
+        int page = Integer.parseInt(url.substring(url.lastIndexOf('/') + 1));
+        for (int next = page + 1; next <= page + 2; next++) {
+            for (String host : OWNERS.keySet()) {
+                event.addTask(link(host, next % PAGES), "page");
+            }
+        }
+    }
+
+    private void page(HttpExchange exchange) throws IOException {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        requests.computeIfAbsent(host + exchange.getRequestURI().getPath(), page -> new AtomicInteger()).incrementAndGet();
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private Link link(String host, int page) {
+        return new Link.Builder("http://" + host + ":" + server.getAddress().getPort() + "/page/" + page).build();
+    }
+}
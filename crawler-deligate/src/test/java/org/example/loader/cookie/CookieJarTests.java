@@ -0,0 +1,166 @@
+package org.example.loader.cookie;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CookieJarTests {
+
+    private final CookieJar jar = new CookieJar();
+
+    @Test
+    void domainCookieCoversSubdomains() {
+        store("https://www.example.org/", "a=1; Domain=.Example.org");
+
+        assertEquals("a=1", header("https://example.org/"));
+        assertEquals("a=1", header("https://api.example.org/"));
+        assertNull(header("https://otherexample.org/"));
+    }
+
+    @Test
+    void hostOnlyCookieStaysOnItsHost() {
+        store("https://www.example.org/", "b=2");
+
+        assertEquals("b=2", header("https://WWW.example.org/"));
+        assertNull(header("https://example.org/"));
+        assertNull(header("https://sub.www.example.org/"));
+    }
+
+    @Test
+    void foreignAndTopLevelDomainsAreRejected() {
+        store("https://www.example.org/", "c=3; Domain=other.org", "d=4; Domain=org", "e=5; Domain=sub.www.example.org");
+
+        assertEquals(0, jar.size());
+    }
+
+    @Test
+    void pathMatchesOnSegments() {
+        store("https://example.org/", "p=1; Path=/docs");
+
+        assertEquals("p=1", header("https://example.org/docs"));
+        assertEquals("p=1", header("https://example.org/docs/"));
+        assertEquals("p=1", header("https://example.org/docs/web"));
+        assertNull(header("https://example.org/docsets"));
+        assertNull(header("https://example.org/"));
+    }
+
+    @Test
+    void defaultPathIsDirectoryOfRequest() {
+        store("https://example.org/docs/web/page", "q=1");
+        store("https://example.org/page", "r=2", "s=3; Path=relative");
+
+        assertEquals("/docs/web", jar.cookies("example.org").getFirst().getPath());
+        assertEquals("q=1; r=2; s=3", header("https://example.org/docs/web/other"));
+        assertEquals("r=2; s=3", header("https://example.org/docs"));
+    }
+
+    @Test
+    void longerPathsAreSentFirst() {
+        store("https://example.org/", "root=1; Path=/", "deep=2; Path=/docs/web", "mid=3; Path=/docs");
+
+        assertEquals("deep=2; mid=3; root=1", header("https://example.org/docs/web/page"));
+    }
+
+    @Test
+    void replacedCookieKeepsItsPlace() {
+        store("https://example.org/", "a=1", "b=2");
+        store("https://example.org/", "a=3");
+
+        assertEquals("a=3; b=2", header("https://example.org/"));
+        assertEquals(2, jar.size());
+    }
+
+    @Test
+    void sameNameOnOtherPathIsAnotherCookie() {
+        store("https://example.org/", "a=1; Path=/", "a=2; Path=/docs");
+
+        assertEquals(2, jar.size());
+        assertEquals("a=2; a=1", header("https://example.org/docs/"));
+    }
+
+    @Test
+    void zeroMaxAgeOrPastExpiryRemoves() {
+        store("https://example.org/", "a=1", "b=2");
+        store("https://example.org/", "a=gone; Max-Age=0", "b=gone; Expires=Thu, 01 Jan 1970 00:00:00 GMT");
+
+        assertNull(header("https://example.org/"));
+        assertEquals(0, jar.size());
+    }
+
+    @Test
+    void expiredCookieIsNotSent() throws InterruptedException {
+        store("https://example.org/", "short=1; Max-Age=1", "session=2");
+        assertEquals("short=1; session=2", header("https://example.org/"));
+
+        Thread.sleep(1_100L);
+        assertEquals("session=2", header("https://example.org/"));
+    }
+
+    @Test
+    void secureCookieOnlyOverHttps() {
+        store("https://example.org/", "token=1; Secure", "plain=2");
+
+        assertEquals("token=1; plain=2", header("https://example.org/"));
+        assertEquals("plain=2", header("http://example.org/"));
+    }
+
+    @Test
+    void changeOfOtherDomainKeepsView() {
+        store("https://www.example.org/", "a=1");
+        String header = header("https://www.example.org/");
+
+        store("https://other.org/", "b=2");
+        assertSame(header, header("https://www.example.org/"));
+
+        store("https://www.example.org/", "c=3; Domain=example.org");
+        assertNotSame(header, header("https://www.example.org/"));
+        assertEquals("a=1; c=3", header("https://www.example.org/"));
+    }
+
+    @Test
+    void clearDropsViews() {
+        store("https://example.org/", "a=1");
+        assertEquals("a=1", header("https://example.org/"));
+
+        jar.clear();
+        assertNull(header("https://example.org/"));
+    }
+
+    @Test
+    void hostsWithoutCookiesKeepNoView() {
+        store("https://www.example.org/", "a=1");
+        for (int i = 0; i < 100; i++) {
+            assertNull(header("https://host" + i + ".other.org/"));
+        }
+        assertEquals("a=1", header("https://www.example.org/"));
+        assertEquals(1, jar.views());
+
+        store("https://www.example.org/", "a=gone; Max-Age=0");
+        assertNull(header("https://www.example.org/"));
+        assertEquals(0, jar.views());
+    }
+
+    @Test
+    void viewsAreBounded() {
+        store("https://example.org/", "a=1; Domain=example.org");
+        for (int i = 0; i <= CookieJar.MAX_VIEWS; i++) {
+            assertEquals("a=1", header("https://host" + i + ".example.org/"));
+        }
+        assertTrue(jar.views() <= CookieJar.MAX_VIEWS);
+    }
+
+    private void store(String uri, String... setCookies) {
+        jar.store(URI.create(uri), List.of(setCookies));
+    }
+
+    private String header(String uri) {
+        return jar.header(URI.create(uri));
+    }
+}
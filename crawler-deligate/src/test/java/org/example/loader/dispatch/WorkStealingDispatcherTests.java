@@ -0,0 +1,121 @@
+package org.example.loader.dispatch;
+
+import org.example.loader.Link;
+import org.example.loader.events.LoaderTask;
+import org.example.loader.frontier.InMemoryFrontier;
+import org.example.loader.limit.RateLimiter;
+import org.example.loader.limit.RateLimiterSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unless a test starts its own dispatcher, the tests take tasks from the
+ * frontier themselves.
+ */
+class WorkStealingDispatcherTests {
+
+    private final InMemoryFrontier frontier = new InMemoryFrontier();
+    private final WorkStealingDispatcher dispatcher =
+          new WorkStealingDispatcher(1, frontier, null, task -> {
+          }, (task, e) -> {
+          }, () -> true, 10L, 5L);
+
+    @Test
+    void producerWaitsUntilFrontierIsDownToLowWater() throws InterruptedException {
+        offer(12);
+        Thread producer = Thread.ofVirtual().start(() -> awaitRoom(false));
+        awaitWaiting(1);
+        assertTrue(dispatcher.isThrottled());
+
+        poll(6);
+        producer.join(TimeUnit.SECONDS.toMillis(1));
+        assertTrue(producer.isAlive());
+
+        poll(1);
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(producer.isAlive());
+        assertFalse(dispatcher.isThrottled());
+        assertEquals(0, dispatcher.waiting());
+    }
+
+    @Test
+    void producerGoesOnWhenFetchingIsStalled() {
+        offer(12);
+        awaitRoom(true);
+
+        assertTrue(dispatcher.isThrottled());
+        assertEquals(0, dispatcher.waiting());
+    }
+
+    @Test
+    void producerBelowHighWaterDoesNotWait() {
+        offer(9);
+        awaitRoom(false);
+
+        assertFalse(dispatcher.isThrottled());
+    }
+
+    @Test
+    void workerOutlivesFailedDispatch() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(new RateLimiterSettings(100.0, 1, 1, false, 1.0, 100.0));
+        List<LoaderTask> scheduled = new CopyOnWriteArrayList<>();
+        List<LoaderTask> failed = new CopyOnWriteArrayList<>();
+        AtomicBoolean active = new AtomicBoolean(true);
+        WorkStealingDispatcher started = new WorkStealingDispatcher(1, frontier, rateLimiter, task -> {
+            if (scheduled.isEmpty() && failed.isEmpty()) {
+                throw new IllegalStateException("broken");
+            }
+            scheduled.add(task);
+            rateLimiter.releaseSlot();
+        }, (task, e) -> failed.add(task), active::get, 0L, 0L);
+        offer(3);
+
+        started.start("dispatch-test");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduled.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        active.set(false);
+        started.stop();
+
+        // with a single slot the later tasks only run if the failed one gave it back
+        assertEquals(1, failed.size());
+        assertEquals(2, scheduled.size());
+    }
+
+    private void awaitRoom(boolean stalled) {
+        try {
+            dispatcher.awaitRoom(() -> stalled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitWaiting(int producers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.waiting() < producers && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(producers, dispatcher.waiting());
+    }
+
+    private void offer(int count) {
+        for (int i = 0; i < count; i++) {
+            frontier.offer(new LoaderTask(new Link.Builder("https://example.org/films/" + i).build()));
+        }
+    }
+
+    private void poll(int count) {
+        for (int i = 0; i < count; i++) {
+            frontier.release(frontier.poll());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.loader.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomSeenFilterTests {
+
+    private static final int KEYS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentAddsOfSameKeyReportItOnce() throws Exception {
+        int threads = 8;
+        BloomSeenFilter filter = new BloomSeenFilter(KEYS, FALSE_POSITIVE_RATE);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 500; round++) {
+                String key = "https://example.org/films/" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> adds = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    adds.add(executor.submit(() -> {
+                        start.await();
+                        return filter.add(key);
+                    }));
+                }
+                start.countDown();
+                int added = 0;
+                for (Future<Boolean> add : adds) {
+                    added += add.get(5, TimeUnit.SECONDS) ? 1 : 0;
+                }
+                assertEquals(1, added, key);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(500, filter.size());
+    }
+
+    @Test
+    void falsePositiveRateIsNearConfigured() {
+        BloomSeenFilter filter = new BloomSeenFilter(KEYS, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("https://example.org/films/" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain("https://example.org/films/" + i));
+            if (filter.mightContain("https://example.org/series/" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / KEYS;
+        assertTrue(rate < 2 * FALSE_POSITIVE_RATE, "false positive rate " + rate);
+    }
+
+    @Test
+    void persistedFilterReadsBackTheSame() throws IOException {
+        BloomSeenFilter filter = new BloomSeenFilter(1_000, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("https://example.org/films/" + i);
+        }
+        Path path = directory.resolve("seen");
+        filter.persist(path);
+
+        BloomSeenFilter restored = assertInstanceOf(BloomSeenFilter.class, SeenFilter.restore(path));
+        assertEquals(filter.size(), restored.size());
+        assertEquals(filter.bitCount(), restored.bitCount());
+        assertEquals(filter.hashCount(), restored.hashCount());
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(restored.add("https://example.org/films/" + i));
+            assertEquals(filter.mightContain("https://example.org/series/" + i),
+                  restored.mightContain("https://example.org/series/" + i));
+        }
+    }
+}
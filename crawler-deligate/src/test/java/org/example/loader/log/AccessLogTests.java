@@ -0,0 +1,51 @@
+package org.example.loader.log;
+
+import org.example.loader.Link;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void closeWritesWhatIsQueued() throws IOException {
+        Path path = directory.resolve("access.log");
+        AccessLog accessLog = new AccessLog(new AccessLogSettings(path.toString(), 1.0, 1L << 20, 2, 4096));
+        for (int i = 0; i < 1_000; i++) {
+            accessLog.append(link(i), i % 10 == 0 ? 500 : 200, 1_500_000L, 42L);
+        }
+        accessLog.close();
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(1_000, lines.size());
+        assertEquals(1_000, accessLog.written());
+        assertEquals(0, accessLog.dropped());
+        String[] first = lines.getFirst().split("\t");
+        assertEquals(List.of("GET", "500", "1500", "42", "https://example.org/films/0"), List.of(first).subList(1, 6));
+    }
+
+    @Test
+    void appendAfterCloseIsIgnored() throws IOException {
+        Path path = directory.resolve("access.log");
+        AccessLog accessLog = new AccessLog(new AccessLogSettings(path.toString(), 1.0, 1L << 20, 2, 16));
+        accessLog.close();
+        accessLog.append(link(0), 200, 1_000L, 0L);
+
+        assertTrue(Files.readAllLines(path).isEmpty());
+        assertEquals(0, accessLog.written());
+    }
+
+    private static Link link(int i) {
+        return new Link.Builder("https://example.org/films/" + i).build();
+    }
+}
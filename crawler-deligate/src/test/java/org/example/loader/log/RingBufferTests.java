@@ -0,0 +1,94 @@
+package org.example.loader.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTests {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, fill(new RingBuffer<>(1)));
+        assertEquals(2, fill(new RingBuffer<>(2)));
+        assertEquals(4, fill(new RingBuffer<>(3)));
+        assertEquals(8, fill(new RingBuffer<>(5)));
+        assertEquals(8, fill(new RingBuffer<>(8)));
+        assertEquals(1024, fill(new RingBuffer<>(1000)));
+    }
+
+    @Test
+    void offerFailsWhileFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertEquals(4, fill(buffer));
+        assertFalse(buffer.offer(-1));
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(-1));
+    }
+
+    @Test
+    void orderIsKeptAcrossWrapAround() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        for (int i = 3; i < 100; i++) {
+            assertTrue(buffer.offer(i));
+            assertEquals(next++, buffer.poll());
+        }
+        for (Integer item = buffer.poll(); item != null; item = buffer.poll()) {
+            assertEquals(next++, item);
+        }
+        assertEquals(100, next);
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void concurrentProducersKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int items = 2_000;
+        RingBuffer<int[]> buffer = new RingBuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < items; i++) {
+                    while (!buffer.offer(new int[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        int[] next = new int[producers];
+        for (int received = 0; received < producers * items; ) {
+            int[] item = buffer.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[item[0]]++, item[1]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+
+    private static int fill(RingBuffer<Integer> buffer) {
+        int count = 0;
+        while (buffer.offer(count)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.loader.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTests {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void bucketBoundIsWithinRelativeError() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.highestEquivalent(LatencyHistogram.index(micros)));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = random.nextLong(16L, 1L << 43);
+            assertBound(micros);
+        }
+        for (int exponent = 4; exponent < 43; exponent++) {
+            assertBound(1L << exponent);
+            assertBound((1L << exponent + 1) - 1);
+        }
+    }
+
+    @Test
+    void durationsPastTheRangeShareTheLastBucket() {
+        int last = LatencyHistogram.index(Long.MAX_VALUE);
+
+        assertEquals(last, LatencyHistogram.index(1L << 43));
+        assertEquals(last, LatencyHistogram.index(1L << 50));
+        assertEquals(last - 1, LatencyHistogram.index((1L << 43) - 1));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalent(last));
+
+        histogram.record(1L << 50, TimeUnit.MICROSECONDS);
+        assertEquals(1L << 50, histogram.percentileMicros(50.0));
+    }
+
+    @Test
+    void percentilesOfSmallDistributions() {
+        assertEquals(0L, histogram.percentileMicros(99.0));
+        for (long micros = 1; micros <= 10; micros++) {
+            histogram.record(micros, TimeUnit.MICROSECONDS);
+        }
+
+        assertEquals(1L, histogram.percentileMicros(0.0));
+        assertEquals(5L, histogram.percentileMicros(50.0));
+        assertEquals(9L, histogram.percentileMicros(90.0));
+        assertEquals(10L, histogram.percentileMicros(100.0));
+        assertEquals(5.5, histogram.meanMicros());
+    }
+
+    @Test
+    void percentileIsUpperBoundOfItsBucket() {
+        for (int i = 0; i < 1_000; i++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(50, TimeUnit.MILLISECONDS);
+        }
+
+        // 100 is the lowest value of the bucket [100, 103]
+        assertEquals(103L, histogram.percentileMicros(50.0));
+        assertEquals(103L, histogram.percentileMicros(99.0));
+        // the bucket of 50 ms reaches past the largest value recorded
+        assertEquals(50_000L, histogram.percentileMicros(99.5));
+        assertEquals(50_000L, histogram.maxMicros());
+    }
+
+    private static void assertBound(long micros) {
+        long bound = LatencyHistogram.highestEquivalent(LatencyHistogram.index(micros));
+        assertTrue(bound >= micros, micros + " above its bucket " + bound);
+        assertTrue(bound - micros <= micros * 0.0625, micros + " in bucket up to " + bound);
+    }
+}
@@ -36,26 +36,21 @@ public class DataInitializer {
         for (String genre : GENRES_LIST) {
             Genre genreEntity = new Genre();
             genreEntity.setName(genre);
-
-            genres.add(genreRepository.save(genreEntity));
+            genres.add(genreEntity);
         }
-
+        genres = genreRepository.saveAll(genres);
 
         Random random = new Random();
+        List<Film> films = new ArrayList<>();
         for (String filmName : FILMS_LIST) {
             Film film = new Film();
             film.setName(filmName);
             Genre genre = genres.get(random.nextInt(0, genres.size() - 1));
             film.setGenre(genre);
             genre.addFilm(film);
-
-            filmRepository.save(film);
+            films.add(film);
         }
-
-        genreRepository.saveAll(genres);
-
-
+        filmRepository.saveAll(films);
     }
 
-
 }
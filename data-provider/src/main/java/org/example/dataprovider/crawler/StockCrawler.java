@@ -1,7 +1,8 @@
 package org.example.dataprovider.crawler;
 
 import org.example.crawler.DataCrawler;
-import org.example.loader.Loader;
+import org.example.dataprovider.snapshot.StockPublisher;
+import org.example.loader.events.DataLoader;
 import org.example.loader.events.SuccessEvent;
 
 import java.util.Map;
@@ -9,10 +10,14 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class StockCrawler extends DataCrawler {
 
-    private Map<String, Stock> currentStocks = new ConcurrentHashMap<>();
+    private final Map<String, Stock> currentStocks = new ConcurrentHashMap<>();
+    private final DataLoader loader;
+    private final StockPublisher publisher;
 
-    public StockCrawler(Loader loader) {
+    public StockCrawler(DataLoader loader, StockPublisher publisher) {
         super(loader);
+        this.loader = loader;
+        this.publisher = publisher;
     }
 
     @Override
@@ -24,10 +29,18 @@ public abstract class StockCrawler extends DataCrawler {
         currentStocks.put(stock.getId(), stock);
     }
 
+    @Override
+    public void beforeStart() {
+        super.beforeStart();
+        currentStocks.clear();
+    }
+
     @Override
     public void onComplete() {
+        // read before the loader shuts down and drops what is left
+        boolean complete = loader.inFlight() == 0;
         super.onComplete();
 
-        //
+        publisher.publish(currentStocks.values(), complete);
     }
 }
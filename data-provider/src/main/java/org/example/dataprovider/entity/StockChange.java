@@ -0,0 +1,50 @@
+package org.example.dataprovider.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of a stock between two crawls. The id is the version consumers
+ * pull changes after, changes are written by a single sink thread so a
+ * committed version is never followed by a smaller one.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockChange {
+
+    public enum Type {
+        ADDED, CHANGED, REMOVED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_change_seq")
+    @SequenceGenerator(name = "stock_change_seq", sequenceName = "stock_change_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String stockId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    // the stock as JSON, null once removed
+    @Lob
+    private String payload;
+
+    public StockChange(String stockId, Type type, String payload) {
+        this(null, stockId, type, payload);
+    }
+}
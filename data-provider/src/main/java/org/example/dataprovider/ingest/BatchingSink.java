@@ -0,0 +1,197 @@
+package org.example.dataprovider.ingest;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Collects entities published from crawler callbacks and hands them to a
+ * writer in batches, once a batch is full or its first entity has waited for
+ * the flush interval. A single thread writes, so batches never run
+ * concurrently. Publishers block while the queue is full.
+ * <p>
+ * A failed batch is logged and counted, not retried. Once the writer thread
+ * has stopped, by {@link #close()} or an interrupt, whatever is still queued
+ * fails: entities are counted, flushes complete exceptionally.
+ */
+public class BatchingSink<T> implements AutoCloseable {
+    private static final Logger log = getLogger(BatchingSink.class);
+
+    // queued behind the entities published before it
+    private record Flush(CompletableFuture<Void> done, boolean stop) {
+    }
+
+    private final String name;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<T>> writer;
+    private final BlockingQueue<Object> queue;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean closed;
+    private volatile boolean stopped;
+
+    public BatchingSink(String name, IngestSettings settings, Consumer<List<T>> writer) {
+        this.name = name;
+        this.batchSize = Math.max(1, settings.batchSize());
+        this.flushIntervalNanos = settings.flushInterval().toNanos();
+        this.writer = writer;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, settings.queueCapacity()));
+        Thread.ofPlatform().daemon().name(name + "-sink").start(this::run);
+    }
+
+    public void publish(T entity) {
+        if (closed || stopped) {
+            throw new IllegalStateException("Sink " + name + " is closed");
+        }
+        try {
+            queue.put(entity);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+            return;
+        }
+        failIfStopped();
+    }
+
+    /**
+     * @return completes once everything published before was written
+     */
+    public CompletableFuture<Void> flush() {
+        return enqueue(new Flush(new CompletableFuture<>(), false));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            enqueue(new Flush(new CompletableFuture<>(), true)).join();
+        } catch (CompletionException e) {
+            log.warn("Sink {} was stopped before it was closed", name);
+        }
+        log.info("Sink {}: {} written in {} batches, {} failed", name, written(), batches(), failed());
+    }
+
+    private CompletableFuture<Void> enqueue(Flush flush) {
+        try {
+            queue.put(flush);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flush.done().completeExceptionally(e);
+            return flush.done();
+        }
+        failIfStopped();
+        return flush.done();
+    }
+
+    // the writer fails what it finds queued when it stops, this takes what came after
+    private void failIfStopped() {
+        if (!stopped) {
+            return;
+        }
+        Object next;
+        while ((next = queue.poll()) != null) {
+            if (next instanceof Flush flush) {
+                flush.done().completeExceptionally(new IllegalStateException("Sink " + name + " has stopped"));
+            } else {
+                failed.increment();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            drain();
+        } finally {
+            stopped = true;
+            failIfStopped();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        List<T> batch = new ArrayList<>(batchSize);
+        long deadline = 0L;
+        while (true) {
+            Object next;
+            try {
+                next = batch.isEmpty()
+                      ? queue.take()
+                      : queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                write(batch);
+                return;
+            }
+            if (next == null) {
+                write(batch);
+                continue;
+            }
+            if (next instanceof Flush flush) {
+                write(batch);
+                flush.done().complete(null);
+                if (flush.stop()) {
+                    return;
+                }
+                continue;
+            }
+            if (batch.isEmpty()) {
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+            batch.add((T) next);
+            if (batch.size() >= batchSize) {
+                write(batch);
+            }
+        }
+    }
+
+    private void write(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (RuntimeException e) {
+            log.error("Sink {} failed to write {} entities", name, batch.size(), e);
+            failed.add(batch.size());
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.dataprovider.ingest;
+
+/**
+ * A film as a crawler finds it, the genre is referenced by name.
+ */
+public record FilmRecord(String name, String genre) {
+}
@@ -0,0 +1,143 @@
+package org.example.dataprovider.ingest;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.example.dataprovider.entity.Film;
+import org.example.dataprovider.entity.Genre;
+import org.example.dataprovider.read.FilmChange;
+import org.example.dataprovider.read.FilmReadCache;
+import org.example.dataprovider.repository.FilmRepository;
+import org.example.dataprovider.repository.GenreRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a batch of crawled films in one transaction. Films and genres are
+ * matched by name: unknown ones are inserted, known films get the genre of
+ * the record. Lookups are one query per batch, skipped for genres seen
+ * before, inserts and updates go out as JDBC batches. Once committed, the
+ * created and moved films are invalidated in the read cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmWriter {
+
+    private final FilmRepository filmRepository;
+    private final GenreRepository genreRepository;
+    private final EntityManager entityManager;
+    private final FilmReadCache readCache;
+    // genres are few and never renamed, known ids skip the lookup
+    private final Map<String, Long> genreIds = new ConcurrentHashMap<>();
+
+    /**
+     * The last record of a name in the batch wins, a record without a genre
+     * leaves the genre of a known film as it is.
+     */
+    @Transactional
+    public void write(List<FilmRecord> batch) {
+        try {
+            upsert(batch);
+        } catch (RuntimeException e) {
+            // genres created by the failed transaction are rolled back as well
+            genreIds.clear();
+            throw e;
+        }
+    }
+
+    private void upsert(List<FilmRecord> batch) {
+        Map<String, FilmRecord> records = new LinkedHashMap<>();
+        for (FilmRecord record : batch) {
+            if (record.name() != null) {
+                records.put(record.name(), record);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        Map<String, Genre> genres = genres(records.values());
+        Map<String, Film> known = new HashMap<>();
+        for (Film film : filmRepository.findAllByNameIn(records.keySet())) {
+            known.put(film.getName(), film);
+        }
+
+        List<Film> created = new ArrayList<>();
+        List<FilmChange> changes = new ArrayList<>();
+        for (FilmRecord record : records.values()) {
+            Genre genre = record.genre() == null ? null : genres.get(record.genre());
+            Film film = known.get(record.name());
+            if (film == null) {
+                film = new Film();
+                film.setName(record.name());
+                film.setGenre(genre);
+                created.add(film);
+            } else if (genre != null && (film.getGenre() == null || !Objects.equals(film.getGenre().getId(), genre.getId()))) {
+                changes.add(new FilmChange(film.getId(), film.getGenre() == null ? null : film.getGenre().getId(), genre.getId()));
+                film.setGenre(genre);
+            }
+        }
+        for (Film film : filmRepository.saveAll(created)) {
+            changes.add(new FilmChange(film.getId(), null, film.getGenre() == null ? null : film.getGenre().getId()));
+        }
+        afterCommit(() -> readCache.invalidate(changes));
+        // keeps the persistence context from growing over the batches of a crawl
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // a reader in between would cache what the transaction is about to replace
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Map<String, Genre> genres(Collection<FilmRecord> records) {
+        Map<String, Genre> genres = new HashMap<>();
+        Set<String> unknown = new HashSet<>();
+        for (FilmRecord record : records) {
+            String name = record.genre();
+            if (name != null && !genres.containsKey(name)) {
+                Long id = genreIds.get(name);
+                if (id != null) {
+                    genres.put(name, entityManager.getReference(Genre.class, id));
+                } else {
+                    unknown.add(name);
+                }
+            }
+        }
+        if (unknown.isEmpty()) {
+            return genres;
+        }
+        for (Genre genre : genreRepository.findAllByNameIn(unknown)) {
+            genres.put(genre.getName(), genre);
+            unknown.remove(genre.getName());
+        }
+        List<Genre> created = new ArrayList<>();
+        for (String name : unknown) {
+            Genre genre = new Genre();
+            genre.setName(name);
+            created.add(genre);
+        }
+        for (Genre genre : genreRepository.saveAll(created)) {
+            genres.put(genre.getName(), genre);
+        }
+        genres.forEach((name, genre) -> genreIds.putIfAbsent(name, genre.getId()));
+        return genres;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.dataprovider.ingest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.example.dataprovider.entity.StockChange;
+import org.example.dataprovider.repository.StockChangeRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IngestSettings.class)
+public class IngestConfiguration {
+
+    /**
+     * Crawler callbacks publish films here, closing the context writes what
+     * is still queued.
+     */
+    @Bean
+    public BatchingSink<FilmRecord> filmSink(IngestSettings settings, FilmWriter writer, MeterRegistry registry) {
+        return metered(new BatchingSink<>("films", settings, writer::write), registry);
+    }
+
+    // a single writer keeps the change versions in commit order
+    @Bean
+    public BatchingSink<StockChange> stockChangeSink(IngestSettings settings, StockChangeRepository repository,
+                                                     MeterRegistry registry) {
+        return metered(new BatchingSink<>("stock-changes", settings, repository::saveAll), registry);
+    }
+
+    private static <T> BatchingSink<T> metered(BatchingSink<T> sink, MeterRegistry registry) {
+        Tags tags = Tags.of("sink", sink.name());
+        FunctionCounter.builder("ingest.written", sink, BatchingSink::written).tags(tags).register(registry);
+        FunctionCounter.builder("ingest.failed", sink, BatchingSink::failed).tags(tags).register(registry);
+        FunctionCounter.builder("ingest.batches", sink, BatchingSink::batches).tags(tags).register(registry);
+        Gauge.builder("ingest.queued", sink, BatchingSink::queued).tags(tags).register(registry);
+        return sink;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.dataprovider.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize     entities written in one transaction, best kept a
+ *                      multiple of the Hibernate JDBC batch size
+ * @param flushInterval longest time an entity waits for its batch to fill
+ * @param queueCapacity entities waiting for the writer before publishers block
+ */
+@ConfigurationProperties("ingest")
+public record IngestSettings(@DefaultValue("200") int batchSize,
+                             @DefaultValue("1s") Duration flushInterval,
+                             @DefaultValue("10000") int queueCapacity) {
+}
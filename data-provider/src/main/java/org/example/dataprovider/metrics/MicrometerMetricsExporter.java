@@ -0,0 +1,141 @@
+package org.example.dataprovider.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.loader.metrics.HostMetrics;
+import org.example.loader.metrics.LatencyHistogram;
+import org.example.loader.metrics.LoaderMetrics;
+import org.example.loader.metrics.MetricsExporter;
+import org.example.loader.metrics.MetricsExporters;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the metrics of every running loader to the Spring Boot meter
+ * registry, tagged with the loader name.
+ */
+@Component
+@RequiredArgsConstructor
+public class MicrometerMetricsExporter implements MetricsExporter {
+
+    private final MeterRegistry registry;
+    private final Map<LoaderMetrics, Set<Meter>> meters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        MetricsExporters.register(this);
+    }
+
+    @PreDestroy
+    public void unregister() {
+        MetricsExporters.unregister(this);
+    }
+
+    @Override
+    public void bind(LoaderMetrics metrics) {
+        Set<Meter> bound = meters.computeIfAbsent(metrics, m -> ConcurrentHashMap.newKeySet());
+        Tags tags = Tags.of("loader", metrics.name());
+
+        bound.add(FunctionCounter.builder("crawler.requests", metrics, LoaderMetrics::requests)
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.failures", metrics, LoaderMetrics::failures)
+              .description("Requests that ended without a response")
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.bytes.in", metrics, LoaderMetrics::bytesIn)
+              .baseUnit("bytes").tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.bytes.decoded", metrics, LoaderMetrics::bytesDecoded)
+              .baseUnit("bytes").tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.bytes.out", metrics, LoaderMetrics::bytesOut)
+              .baseUnit("bytes").tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.tasks.dropped", metrics, LoaderMetrics::dropped)
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.tasks.cancelled", metrics, LoaderMetrics::cancelled)
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.tasks.retries", metrics, LoaderMetrics::retries)
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.tasks.retries.denied", metrics, LoaderMetrics::retriesDenied)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.tasks.parked", metrics, LoaderMetrics::parked)
+              .tags(tags).register(registry));
+        bound.add(FunctionCounter.builder("crawler.circuit.opened", metrics, LoaderMetrics::circuitsOpened)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.circuit.open", metrics, LoaderMetrics::openCircuits)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.frontier.depth", metrics, LoaderMetrics::frontierDepth)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.inflight", metrics, LoaderMetrics::inFlight)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.handler.backlog", metrics, LoaderMetrics::handlerBacklog)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.handler.throttled", metrics, LoaderMetrics::throttled)
+              .tags(tags).register(registry));
+        bound.add(Gauge.builder("crawler.request.rate", metrics, LoaderMetrics::requestRate)
+              .baseUnit("requests/s").tags(tags).register(registry));
+
+        latency(bound, "crawler.latency", tags.and("phase", "connect"), metrics.connect());
+        latency(bound, "crawler.latency", tags.and("phase", "ttfb"), metrics.firstByte());
+        latency(bound, "crawler.latency", tags.and("phase", "body"), metrics.body());
+        latency(bound, "crawler.latency", tags.and("phase", "total"), metrics.total());
+        latency(bound, "crawler.callback", tags, metrics.callback());
+
+        export(metrics);
+    }
+
+    // status codes and hosts only become known while the crawl runs
+    @Override
+    public void export(LoaderMetrics metrics) {
+        Set<Meter> bound = meters.get(metrics);
+        if (bound == null) {
+            return;
+        }
+        Tags tags = Tags.of("loader", metrics.name());
+        for (int status : metrics.statuses().keySet()) {
+            bound.add(FunctionCounter.builder("crawler.responses", metrics, m -> m.status(status))
+                  .tags(tags.and("status", String.valueOf(status))).register(registry));
+        }
+        for (HostMetrics host : metrics.hosts()) {
+            Tags hostTags = tags.and("host", host.host());
+            bound.add(FunctionCounter.builder("crawler.host.requests", host, HostMetrics::requests)
+                  .tags(hostTags).register(registry));
+            bound.add(FunctionCounter.builder("crawler.host.errors", host, HostMetrics::errors)
+                  .tags(hostTags).register(registry));
+            bound.add(Gauge.builder("crawler.host.request.rate", host, HostMetrics::requestRate)
+                  .baseUnit("requests/s").tags(hostTags).register(registry));
+            latency(bound, "crawler.host.latency", hostTags, host.latency());
+        }
+    }
+
+    @Override
+    public void unbind(LoaderMetrics metrics) {
+        Set<Meter> bound = meters.remove(metrics);
+        if (bound != null) {
+            bound.forEach(registry::remove);
+        }
+    }
+
+    private void latency(Set<Meter> bound, String name, Tags tags, LatencyHistogram histogram) {
+        bound.add(FunctionTimer.builder(name, histogram, LatencyHistogram::count, LatencyHistogram::totalMicros,
+                    TimeUnit.MICROSECONDS)
+              .tags(tags).register(registry));
+        for (double percentile : new double[]{50.0, 95.0, 99.0}) {
+            bound.add(TimeGauge.builder(name + ".percentile", histogram, TimeUnit.MICROSECONDS,
+                        h -> h.percentileMicros(percentile))
+                  .tags(tags.and("percentile", String.valueOf(percentile / 100.0)))
+                  .register(registry));
+        }
+        bound.add(TimeGauge.builder(name + ".max", histogram, TimeUnit.MICROSECONDS, LatencyHistogram::maxMicros)
+              .tags(tags).register(registry));
+    }
+}
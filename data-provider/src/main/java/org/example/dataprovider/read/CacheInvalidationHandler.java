@@ -0,0 +1,42 @@
+package org.example.dataprovider.read;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dataprovider.entity.Film;
+import org.example.dataprovider.entity.Genre;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkSave;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes through the repository REST resources are rare and do not know what
+ * they replaced, they drop the whole read cache.
+ */
+@Component
+@RepositoryEventHandler
+@RequiredArgsConstructor
+public class CacheInvalidationHandler {
+
+    private final FilmReadCache cache;
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    @HandleAfterLinkSave
+    @HandleAfterLinkDelete
+    public void onFilm(Film film) {
+        cache.invalidateAll();
+    }
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    @HandleAfterLinkSave
+    @HandleAfterLinkDelete
+    public void onGenre(Genre genre) {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.dataprovider.read;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maximumSize entries each read cache keeps before evicting the least recently used
+ * @param ttl         longest time an entry is served, bounds staleness after writes that bypass the ingest path
+ */
+@ConfigurationProperties("read-cache")
+public record CacheSettings(@DefaultValue("10000") int maximumSize,
+                            @DefaultValue("10m") Duration ttl) {
+}
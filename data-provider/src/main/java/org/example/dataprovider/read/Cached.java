@@ -0,0 +1,21 @@
+package org.example.dataprovider.read;
+
+import java.util.Arrays;
+
+/**
+ * @param etag quoted entity tag of the value, changes with its content
+ */
+public record Cached<V>(V value, String etag) {
+
+    /**
+     * @param ifNoneMatch the If-None-Match header of a request, may be {@code null}
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+              .map(String::trim)
+              .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+}
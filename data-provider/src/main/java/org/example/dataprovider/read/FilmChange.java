@@ -0,0 +1,10 @@
+package org.example.dataprovider.read;
+
+/**
+ * A film that was created or moved to another genre.
+ *
+ * @param oldGenreId genre the film left, {@code null} for a new film
+ * @param newGenreId genre of the film now, may be {@code null}
+ */
+public record FilmChange(long filmId, Long oldGenreId, Long newGenreId) {
+}
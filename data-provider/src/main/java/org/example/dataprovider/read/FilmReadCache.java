@@ -0,0 +1,113 @@
+package org.example.dataprovider.read;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.util.HashUtils;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches of the film read path: single films, genres with their films and
+ * keyset pages. Ingested changes invalidate only the films and genres they
+ * touch and the pages whose id range holds a changed film.
+ * <p>
+ * Entity tags hash the JSON a client gets, so a value that is loaded again
+ * unchanged, also after a restart, keeps its tag.
+ */
+public class FilmReadCache {
+
+    private record PageKey(Long genreId, long after, int size) {
+    }
+
+    private final ReadCache<Long, Optional<FilmView>> films;
+    private final ReadCache<Long, Optional<GenreView>> genres;
+    private final ReadCache<PageKey, KeysetPage<FilmView>> pages;
+
+    public FilmReadCache(CacheSettings settings, ObjectMapper mapper) {
+        long ttl = settings.ttl().toNanos();
+        this.films = new ReadCache<>("films", settings.maximumSize(), ttl, value -> fingerprint(mapper, value));
+        this.genres = new ReadCache<>("genres", settings.maximumSize(), ttl, value -> fingerprint(mapper, value));
+        this.pages = new ReadCache<>("film-pages", settings.maximumSize(), ttl, value -> fingerprint(mapper, value));
+    }
+
+    public Cached<Optional<FilmView>> film(long id, Supplier<Optional<FilmView>> loader) {
+        return films.get(id, loader);
+    }
+
+    public Cached<Optional<GenreView>> genre(long id, Supplier<Optional<GenreView>> loader) {
+        return genres.get(id, loader);
+    }
+
+    public Cached<KeysetPage<FilmView>> films(long after, int size, Supplier<KeysetPage<FilmView>> loader) {
+        return pages.get(new PageKey(null, after, size), loader);
+    }
+
+    public Cached<KeysetPage<FilmView>> genreFilms(long genreId, long after, int size,
+                                                   Supplier<KeysetPage<FilmView>> loader) {
+        return pages.get(new PageKey(genreId, after, size), loader);
+    }
+
+    public void invalidate(Collection<FilmChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Long>> byGenre = new HashMap<>();
+        Set<Long> changed = new HashSet<>();
+        for (FilmChange change : changes) {
+            changed.add(change.filmId());
+            films.invalidate(change.filmId());
+            for (Long genreId : Arrays.asList(change.oldGenreId(), change.newGenreId())) {
+                if (genreId != null) {
+                    byGenre.computeIfAbsent(genreId, id -> new HashSet<>()).add(change.filmId());
+                }
+            }
+        }
+        byGenre.keySet().forEach(genres::invalidate);
+
+        long[] all = sorted(changed);
+        Map<Long, long[]> genreFilms = new HashMap<>();
+        byGenre.forEach((genreId, ids) -> genreFilms.put(genreId, sorted(ids)));
+        pages.invalidateIf((key, page) -> covers(key.genreId() == null ? all : genreFilms.get(key.genreId()), key, page));
+    }
+
+    public void invalidateAll() {
+        caches().forEach(ReadCache::invalidateAll);
+    }
+
+    public List<ReadCache<?, ?>> caches() {
+        return List.of(films, genres, pages);
+    }
+
+    // a page covers the ids after its key up to its last film, or all of them on the last page
+    private static boolean covers(long[] ids, PageKey key, KeysetPage<FilmView> page) {
+        if (ids == null) {
+            return false;
+        }
+        int first = Arrays.binarySearch(ids, key.after() + 1);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        return first < ids.length && (page.next() == null || ids[first] <= page.next());
+    }
+
+    private static long fingerprint(ObjectMapper mapper, Object value) {
+        try {
+            return HashUtils.hash64(mapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize " + value, e);
+        }
+    }
+
+    private static long[] sorted(Set<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.dataprovider.read;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dataprovider.entity.Genre;
+import org.example.dataprovider.repository.FilmRepository;
+import org.example.dataprovider.repository.GenreRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+/**
+ * Read path for films and genres. Pages seek past the last id of the
+ * previous page instead of counting an offset, so a deep page costs the
+ * same as the first one, and rows are read as projections.
+ * <p>
+ * Responses come from the {@link FilmReadCache} and carry the entity tag of
+ * the cached value, a matching If-None-Match is answered with 304.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class FilmReadController {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final FilmRepository filmRepository;
+    private final GenreRepository genreRepository;
+    private final FilmReadCache cache;
+
+    @GetMapping("/films")
+    public ResponseEntity<KeysetPage<FilmView>> films(@RequestParam(defaultValue = "0") long after,
+                                                      @RequestParam(defaultValue = "50") int size,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int limit = pageSize(size);
+        return conditional(cache.films(after, limit,
+              () -> KeysetPage.of(filmRepository.findPageAfter(after, Limit.of(limit)), limit)), ifNoneMatch);
+    }
+
+    @GetMapping("/films/{id}")
+    public ResponseEntity<FilmView> film(@PathVariable long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalOptional(cache.film(id, () -> filmRepository.findViewById(id)), ifNoneMatch);
+    }
+
+    @GetMapping("/genres/{id}/films")
+    public ResponseEntity<KeysetPage<FilmView>> genreFilms(@PathVariable long id,
+                                                           @RequestParam(defaultValue = "0") long after,
+                                                           @RequestParam(defaultValue = "50") int size,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int limit = pageSize(size);
+        return conditional(cache.genreFilms(id, after, limit,
+              () -> KeysetPage.of(filmRepository.findPageByGenreAfter(id, after, Limit.of(limit)), limit)), ifNoneMatch);
+    }
+
+    /**
+     * The genre with all its films in one query, large genres are better
+     * read through {@link #genreFilms}.
+     */
+    @GetMapping("/genres/{id}")
+    public ResponseEntity<GenreView> genre(@PathVariable long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalOptional(cache.genre(id, () -> genreRepository.findWithFilmsById(id).map(FilmReadController::view)),
+              ifNoneMatch);
+    }
+
+    private static GenreView view(Genre genre) {
+        return new GenreView(genre.getId(), genre.getName(), genre.getFilms().stream()
+              .map(film -> new FilmView(film.getId(), film.getName(), genre.getId(), genre.getName()))
+              .toList());
+    }
+
+    private static <T> ResponseEntity<T> conditionalOptional(Cached<Optional<T>> cached, String ifNoneMatch) {
+        if (cached.value().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(new Cached<>(cached.value().get(), cached.etag()), ifNoneMatch);
+    }
+
+    // clients revalidate every time, a 304 skips the body
+    private static <T> ResponseEntity<T> conditional(Cached<T> cached, String ifNoneMatch) {
+        if (cached.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.etag()).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(cached.etag()).cacheControl(CacheControl.noCache()).body(cached.value());
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(MAX_PAGE_SIZE, Math.max(1, size));
+    }
+}
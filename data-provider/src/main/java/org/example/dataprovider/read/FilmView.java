@@ -0,0 +1,7 @@
+package org.example.dataprovider.read;
+
+/**
+ * A film with the id and name of its genre, read with one query.
+ */
+public record FilmView(Long id, String name, Long genreId, String genreName) {
+}
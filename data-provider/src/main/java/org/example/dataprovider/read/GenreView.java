@@ -0,0 +1,6 @@
+package org.example.dataprovider.read;
+
+import java.util.List;
+
+public record GenreView(Long id, String name, List<FilmView> films) {
+}
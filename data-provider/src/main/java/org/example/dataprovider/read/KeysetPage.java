@@ -0,0 +1,15 @@
+package org.example.dataprovider.read;
+
+import java.util.List;
+
+/**
+ * @param items page in id order
+ * @param next  id to pass as {@code after} for the next page, {@code null}
+ *              after the last one
+ */
+public record KeysetPage<T>(List<T> items, Long next) {
+
+    static KeysetPage<FilmView> of(List<FilmView> films, int size) {
+        return new KeysetPage<>(films, films.size() < size ? null : films.get(films.size() - 1).id());
+    }
+}
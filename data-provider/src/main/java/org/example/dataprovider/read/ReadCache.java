@@ -0,0 +1,202 @@
+package org.example.dataprovider.read;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read-through cache with a size bound in LRU order and a time to live.
+ * Values are loaded outside the lock. A load that overlaps an invalidation
+ * of its key, or one whose predicate matches the loaded value, is returned
+ * but not kept, so it cannot bring back what was invalidated. Invalidations
+ * are remembered only while a load older than them is in flight.
+ * <p>
+ * The entity tag of a value is a hash of its content, so loading the same
+ * content again gives the same tag.
+ */
+public class ReadCache<K, V> {
+
+    private record Entry<V>(V value, String etag, long expiresAt) {
+    }
+
+    private record Invalidation<K, V>(long version, BiPredicate<K, V> stale) {
+    }
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final ToLongFunction<? super V> fingerprint;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // versions of the loads in flight, with their count
+    private final TreeMap<Long, Integer> loads = new TreeMap<>();
+    private final Map<K, Long> invalidatedKeys = new HashMap<>();
+    private final List<Invalidation<K, V>> invalidatedIf = new ArrayList<>();
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ReadCache(String name, int maximumSize, long ttlNanos, ToLongFunction<? super V> fingerprint) {
+        this.name = name;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.ttlNanos = ttlNanos;
+        this.fingerprint = fingerprint;
+    }
+
+    public Cached<V> get(K key, Supplier<V> loader) {
+        long loadVersion;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt() < 0) {
+                    hits.increment();
+                    return cached(entry);
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            misses.increment();
+            loadVersion = version;
+            loads.merge(loadVersion, 1, Integer::sum);
+        }
+        Entry<V> entry = null;
+        try {
+            V value = loader.get();
+            entry = new Entry<>(value, etag(value), System.nanoTime() + ttlNanos);
+        } finally {
+            synchronized (this) {
+                if (entry != null && !invalidatedSince(loadVersion, key, entry.value())) {
+                    entries.put(key, entry);
+                    evict();
+                }
+                finishLoad(loadVersion);
+            }
+        }
+        return cached(entry);
+    }
+
+    public synchronized void invalidate(K key) {
+        if (!loads.isEmpty()) {
+            invalidatedKeys.put(key, ++version);
+        }
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Loads in flight test {@code stale} against their value before they
+     * keep it.
+     */
+    public synchronized void invalidateIf(BiPredicate<K, V> stale) {
+        if (!loads.isEmpty()) {
+            invalidatedIf.add(new Invalidation<>(++version, stale));
+        }
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (stale.test(entry.getKey(), entry.getValue().value())) {
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        if (!loads.isEmpty()) {
+            invalidatedIf.add(new Invalidation<>(++version, (key, value) -> true));
+        }
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public double hitRatio() {
+        long hits = hits();
+        long requests = hits + misses();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    private void evict() {
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maximumSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private boolean invalidatedSince(long loadVersion, K key, V value) {
+        Long keyVersion = invalidatedKeys.get(key);
+        if (keyVersion != null && keyVersion > loadVersion) {
+            return true;
+        }
+        for (Invalidation<K, V> invalidation : invalidatedIf) {
+            if (invalidation.version() > loadVersion && invalidation.stale().test(key, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // an invalidation only hits loads that started before it, it goes once all of them are done
+    private void finishLoad(long loadVersion) {
+        loads.computeIfPresent(loadVersion, (v, count) -> count == 1 ? null : count - 1);
+        if (loads.isEmpty()) {
+            invalidatedKeys.clear();
+            invalidatedIf.clear();
+            return;
+        }
+        long oldest = loads.firstKey();
+        if (oldest > loadVersion) {
+            invalidatedKeys.values().removeIf(keyVersion -> keyVersion <= oldest);
+            invalidatedIf.removeIf(invalidation -> invalidation.version() <= oldest);
+        }
+    }
+
+    private String etag(V value) {
+        return "\"" + Long.toHexString(fingerprint.applyAsLong(value)) + "\"";
+    }
+
+    private Cached<V> cached(Entry<V> entry) {
+        return new Cached<>(entry.value(), entry.etag());
+    }
+}
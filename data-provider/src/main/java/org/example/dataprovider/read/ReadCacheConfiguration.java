@@ -0,0 +1,40 @@
+package org.example.dataprovider.read;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheSettings.class)
+public class ReadCacheConfiguration {
+
+    /**
+     * Meters follow the names of the Micrometer cache binders, tagged with
+     * the cache name.
+     */
+    @Bean
+    public FilmReadCache filmReadCache(CacheSettings settings, ObjectMapper mapper, MeterRegistry registry) {
+        FilmReadCache cache = new FilmReadCache(settings, mapper);
+        for (ReadCache<?, ?> readCache : cache.caches()) {
+            Tags tags = Tags.of("cache", readCache.name());
+            FunctionCounter.builder("cache.gets", readCache, ReadCache::hits)
+                  .tags(tags.and("result", "hit")).register(registry);
+            FunctionCounter.builder("cache.gets", readCache, ReadCache::misses)
+                  .tags(tags.and("result", "miss")).register(registry);
+            FunctionCounter.builder("cache.evictions", readCache, ReadCache::evictions)
+                  .tags(tags.and("cause", "size")).register(registry);
+            FunctionCounter.builder("cache.evictions", readCache, ReadCache::expirations)
+                  .tags(tags.and("cause", "expired")).register(registry);
+            FunctionCounter.builder("cache.evictions", readCache, ReadCache::invalidations)
+                  .tags(tags.and("cause", "invalidated")).register(registry);
+            Gauge.builder("cache.size", readCache, ReadCache::size).tags(tags).register(registry);
+            Gauge.builder("cache.hit.ratio", readCache, ReadCache::hitRatio).tags(tags).register(registry);
+        }
+        return cache;
+    }
+}
@@ -1,16 +1,37 @@
 package org.example.dataprovider.repository;
 
 import org.example.dataprovider.entity.Film;
+import org.example.dataprovider.read.FilmView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.data.rest.webmvc.RepositoryRestController;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @RepositoryRestController
 public interface FilmRepository extends JpaRepository<Film, Long> {
 
-    List<Film> findAllByGenreId(Long genreId);
+    @RestResource(exported = false)
+    @Query("select new org.example.dataprovider.read.FilmView(f.id, f.name, g.id, g.name) "
+          + "from Film f left join f.genre g where f.id = :id")
+    Optional<FilmView> findViewById(@Param("id") long id);
+
+    @RestResource(exported = false)
+    @Query("select new org.example.dataprovider.read.FilmView(f.id, f.name, g.id, g.name) "
+          + "from Film f left join f.genre g where f.id > :after order by f.id")
+    List<FilmView> findPageAfter(@Param("after") long after, Limit limit);
+
+    @RestResource(exported = false)
+    @Query("select new org.example.dataprovider.read.FilmView(f.id, f.name, g.id, g.name) "
+          + "from Film f join f.genre g where f.genre.id = :genreId and f.id > :after order by f.id")
+    List<FilmView> findPageByGenreAfter(@Param("genreId") long genreId, @Param("after") long after, Limit limit);
+
+    List<Film> findAllByNameIn(Collection<String> names);
 
 }
@@ -2,9 +2,22 @@ package org.example.dataprovider.repository;
 
 import org.example.dataprovider.entity.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @RepositoryRestResource(path = "genres")
 public interface GenreRepository extends JpaRepository<Genre, Long> {
 
+    List<Genre> findAllByNameIn(Collection<String> names);
+
+    @RestResource(exported = false)
+    @Query("select g from Genre g left join fetch g.films where g.id = :id")
+    Optional<Genre> findWithFilmsById(@Param("id") Long id);
+
 }
@@ -0,0 +1,15 @@
+package org.example.dataprovider.repository;
+
+import org.example.dataprovider.entity.StockChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import java.util.List;
+
+@RepositoryRestResource(exported = false)
+public interface StockChangeRepository extends JpaRepository<StockChange, Long> {
+
+    List<StockChange> findByIdGreaterThanOrderByIdAsc(Long version, Limit limit);
+
+}
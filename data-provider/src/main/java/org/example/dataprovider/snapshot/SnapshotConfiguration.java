@@ -0,0 +1,22 @@
+package org.example.dataprovider.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dataprovider.entity.StockChange;
+import org.example.dataprovider.ingest.BatchingSink;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SnapshotSettings.class)
+public class SnapshotConfiguration {
+
+    /**
+     * Shared by the stock crawlers, they publish their stocks on completion.
+     */
+    @Bean
+    public StockPublisher stockPublisher(SnapshotSettings settings, BatchingSink<StockChange> stockChangeSink,
+                                         ObjectMapper mapper) {
+        return new StockPublisher(settings, stockChangeSink, mapper);
+    }
+}
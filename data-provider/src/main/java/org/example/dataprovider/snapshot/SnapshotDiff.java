@@ -0,0 +1,21 @@
+package org.example.dataprovider.snapshot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param generation generation of the {@link SnapshotFile} the diff was taken from
+ * @param added      content hashes of ids missing from the snapshot
+ * @param changed    new content hashes of ids whose hash differs
+ * @param removed    ids of the snapshot missing from the run
+ */
+public record SnapshotDiff(long generation, Map<String, Long> added, Map<String, Long> changed, List<String> removed) {
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        return added.size() + changed.size() + removed.size();
+    }
+}
@@ -0,0 +1,304 @@
+package org.example.dataprovider.snapshot;
+
+import org.example.util.HashUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content hashes of the entries of the last published run, kept in a
+ * memory-mapped open addressing table keyed by entry id. A diff only reads
+ * the slots of the current ids and a change only writes the slots it
+ * touches, the whole table is scanned just when some ids are gone.
+ * <p>
+ * Every slot holds the id inline, so ids are limited to
+ * {@value #MAX_ID_BYTES} UTF-8 bytes. The table doubles once it is
+ * {@code 2/3} full, rewriting it into a new file that replaces the old one.
+ * Other writes go to the mapped file in place and are forced once per
+ * {@link #apply}.
+ * <p>
+ * A crash during {@link #apply} can leave part of its changes written. Every
+ * slot is whole on its own, its state is written last, so the table stays
+ * usable: {@link #open} counts the live and deleted slots again instead of
+ * trusting the header, and what is missing shows up in the next diff.
+ */
+public class SnapshotFile implements AutoCloseable {
+
+    public static final int MAX_ID_BYTES = 40;
+
+    private static final int MAGIC = 0x534e5031;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    // header
+    private static final int CAPACITY = 4;
+    private static final int LIVE = 8;
+    private static final int DELETED = 12;
+    private static final int GENERATION = 16;
+
+    // slot
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final byte REMOVED = 2;
+    private static final int STATE = 0;
+    private static final int ID_LENGTH = 1;
+    private static final int KEY_HASH = 8;
+    private static final int CONTENT_HASH = 16;
+    private static final int ID = 24;
+
+    private final Path path;
+    private MappedByteBuffer table;
+    private int capacity;
+    private int live;
+    private int deleted;
+    private long generation;
+
+    public SnapshotFile(Path path, int initialCapacity) {
+        this.path = path;
+        try {
+            if (Files.exists(path)) {
+                open();
+            } else {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                create(path, tableCapacity(initialCapacity)).force();
+                open();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Compares the content hashes of a run with the snapshot without
+     * changing it.
+     */
+    public synchronized SnapshotDiff diff(Map<String, Long> contentHashes) {
+        Map<String, Long> added = new LinkedHashMap<>();
+        Map<String, Long> changed = new LinkedHashMap<>();
+        BitSet seen = new BitSet(capacity);
+        contentHashes.forEach((id, hash) -> {
+            byte[] key = key(id);
+            int slot = find(key, HashUtils.hash64(id));
+            if (slot < 0) {
+                added.put(id, hash);
+                return;
+            }
+            seen.set(slot);
+            if (table.getLong(offset(slot) + CONTENT_HASH) != hash) {
+                changed.put(id, hash);
+            }
+        });
+        List<String> removed = new ArrayList<>();
+        if (seen.cardinality() < live) {
+            for (int slot = 0; slot < capacity; slot++) {
+                if (table.get(offset(slot) + STATE) == USED && !seen.get(slot)) {
+                    removed.add(id(slot));
+                }
+            }
+        }
+        return new SnapshotDiff(generation, added, changed, removed);
+    }
+
+    /**
+     * Writes a diff taken from the current state of the snapshot.
+     *
+     * @throws IllegalStateException when the snapshot changed since the diff
+     */
+    public synchronized void apply(SnapshotDiff diff) {
+        if (diff.generation() != generation) {
+            throw new IllegalStateException("Snapshot " + path + " changed since the diff of generation " + diff.generation());
+        }
+        if (diff.isEmpty()) {
+            return;
+        }
+        for (String id : diff.removed()) {
+            int slot = find(key(id), HashUtils.hash64(id));
+            if (slot >= 0) {
+                table.put(offset(slot) + STATE, REMOVED);
+                live--;
+                deleted++;
+            }
+        }
+        diff.changed().forEach((id, hash) -> {
+            int slot = find(key(id), HashUtils.hash64(id));
+            table.putLong(offset(slot) + CONTENT_HASH, hash);
+        });
+        if ((long) (live + deleted + diff.added().size()) * 3 > (long) capacity * 2) {
+            resize(live + diff.added().size());
+        }
+        diff.added().forEach((id, hash) -> {
+            if (insert(table, capacity, key(id), HashUtils.hash64(id), hash) == REMOVED) {
+                deleted--;
+            }
+        });
+        live += diff.added().size();
+        generation++;
+        writeHeader();
+        table.force();
+    }
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void close() {
+        table.force();
+    }
+
+    private int find(byte[] key, long keyHash) {
+        int mask = capacity - 1;
+        for (int slot = (int) keyHash & mask; ; slot = slot + 1 & mask) {
+            int offset = offset(slot);
+            byte state = table.get(offset + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && table.getLong(offset + KEY_HASH) == keyHash && sameId(offset, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean sameId(int offset, byte[] key) {
+        if (table.get(offset + ID_LENGTH) != key.length) {
+            return false;
+        }
+        byte[] stored = new byte[key.length];
+        table.get(offset + ID, stored);
+        return Arrays.equals(stored, key);
+    }
+
+    private String id(int slot) {
+        int offset = offset(slot);
+        byte[] id = new byte[table.get(offset + ID_LENGTH)];
+        table.get(offset + ID, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Takes the first free slot, an absent key may reuse a tombstone.
+     *
+     * @return the previous state of the slot
+     */
+    private static byte insert(MappedByteBuffer table, int capacity, byte[] key, long keyHash, long contentHash) {
+        int mask = capacity - 1;
+        int slot = (int) keyHash & mask;
+        while (table.get(offset(slot) + STATE) == USED) {
+            slot = slot + 1 & mask;
+        }
+        int offset = offset(slot);
+        byte previous = table.get(offset + STATE);
+        table.put(offset + ID_LENGTH, (byte) key.length);
+        table.putLong(offset + KEY_HASH, keyHash);
+        table.putLong(offset + CONTENT_HASH, contentHash);
+        table.put(offset + ID, key);
+        table.put(offset + STATE, USED);
+        return previous;
+    }
+
+    private void resize(int entries) {
+        int newCapacity = tableCapacity(entries);
+        Path next = path.resolveSibling(path.getFileName() + ".resize");
+        try {
+            MappedByteBuffer resized = create(next, newCapacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = offset(slot);
+                if (table.get(offset + STATE) == USED) {
+                    byte[] key = new byte[table.get(offset + ID_LENGTH)];
+                    table.get(offset + ID, key);
+                    insert(resized, newCapacity, key, table.getLong(offset + KEY_HASH), table.getLong(offset + CONTENT_HASH));
+                }
+            }
+            resized.putInt(LIVE, live).putLong(GENERATION, generation);
+            resized.force();
+            Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            table = resized;
+            capacity = newCapacity;
+            deleted = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot resize snapshot " + path, e);
+        }
+    }
+
+    private void open() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Truncated snapshot " + path);
+            }
+            table = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (table.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot file " + path);
+        }
+        capacity = table.getInt(CAPACITY);
+        generation = table.getLong(GENERATION);
+        if (Integer.bitCount(capacity) != 1 || table.capacity() != HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+            throw new IOException("Corrupted snapshot " + path);
+        }
+        live = 0;
+        deleted = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            byte state = table.get(offset(slot) + STATE);
+            if (state == USED) {
+                live++;
+            } else if (state == REMOVED) {
+                deleted++;
+            }
+        }
+    }
+
+    private void writeHeader() {
+        table.putInt(LIVE, live).putInt(DELETED, deleted).putLong(GENERATION, generation);
+    }
+
+    private static MappedByteBuffer create(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            table.putInt(0, MAGIC).putInt(CAPACITY, capacity);
+            return table;
+        }
+    }
+
+    private static int tableCapacity(int entries) {
+        long needed = Math.max(MIN_CAPACITY, (long) entries * 2);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalStateException("Snapshot cannot hold " + entries + " entries");
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static byte[] key(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Snapshot id longer than " + MAX_ID_BYTES + " bytes: " + id);
+        }
+        return key;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
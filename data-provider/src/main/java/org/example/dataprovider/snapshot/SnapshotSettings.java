@@ -0,0 +1,20 @@
+package org.example.dataprovider.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param path            snapshot file of the last published stocks
+ * @param initialCapacity stocks the snapshot holds before it first grows
+ * @param pageSize        changes read per query while streaming them
+ * @param publishTimeout  longest wait for the changes of a run to be written
+ */
+@ConfigurationProperties("snapshot")
+public record SnapshotSettings(@DefaultValue("snapshot/stocks.snapshot") Path path,
+                               @DefaultValue("1024") int initialCapacity,
+                               @DefaultValue("500") int pageSize,
+                               @DefaultValue("1m") Duration publishTimeout) {
+}
@@ -0,0 +1,58 @@
+package org.example.dataprovider.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.example.dataprovider.entity.StockChange;
+import org.example.dataprovider.repository.StockChangeRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Streams the stock changes after a version as newline delimited JSON, one
+ * change per line in version order. A consumer passes the version of the
+ * last line it read to continue.
+ */
+@RestController
+@RequiredArgsConstructor
+public class StockChangeController {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final StockChangeRepository repository;
+    private final SnapshotSettings settings;
+    private final ObjectMapper mapper;
+
+    private record ChangeLine(long version, String stockId, StockChange.Type type, @JsonRawValue String stock) {
+    }
+
+    @GetMapping("/stocks/changes")
+    public ResponseEntity<StreamingResponseBody> changes(@RequestParam(defaultValue = "0") long since) {
+        ObjectWriter writer = mapper.writerFor(ChangeLine.class);
+        int pageSize = Math.max(1, settings.pageSize());
+        // keyset pages, each query reads only the changes it returns
+        StreamingResponseBody body = out -> {
+            long version = since;
+            List<StockChange> page;
+            do {
+                page = repository.findByIdGreaterThanOrderByIdAsc(version, Limit.of(pageSize));
+                for (StockChange change : page) {
+                    writer.writeValue(out, new ChangeLine(change.getId(), change.getStockId(), change.getType(),
+                          change.getPayload()));
+                    out.write('\n');
+                    version = change.getId();
+                }
+                out.flush();
+            } while (page.size() == pageSize);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.dataprovider.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.dataprovider.crawler.Stock;
+import org.example.dataprovider.entity.StockChange;
+import org.example.dataprovider.ingest.BatchingSink;
+import org.example.util.HashUtils;
+import org.slf4j.Logger;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Publishes what changed in the stocks of a crawl since the last one. Stocks
+ * are compared by a hash of their JSON against the {@link SnapshotFile}, so
+ * only changes are written to the change log.
+ * <p>
+ * The snapshot is updated once the changes are written. Changes that could
+ * not be written are published again by the next run, consumers see them at
+ * least once.
+ */
+public class StockPublisher implements AutoCloseable {
+    private static final Logger log = getLogger(StockPublisher.class);
+
+    private final SnapshotSettings settings;
+    private final BatchingSink<StockChange> sink;
+    private final ObjectWriter writer;
+    private SnapshotFile snapshot;
+
+    public StockPublisher(SnapshotSettings settings, BatchingSink<StockChange> sink, ObjectMapper mapper) {
+        this.settings = settings;
+        this.sink = sink;
+        // map entries in a fixed order, so equal stocks hash the same
+        this.writer = mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * @param complete whether the crawl saw every stock, stocks missing from
+     *                 an incomplete crawl are not removed
+     * @return the published changes
+     */
+    public synchronized SnapshotDiff publish(Collection<? extends Stock> stocks, boolean complete) {
+        Map<String, Stock> byId = new HashMap<>();
+        Map<String, Long> hashes = new HashMap<>();
+        for (Stock stock : stocks) {
+            byId.put(stock.getId(), stock);
+            hashes.put(stock.getId(), HashUtils.hash64(json(stock)));
+        }
+        SnapshotDiff diff = snapshot().diff(hashes);
+        if (!complete && !diff.removed().isEmpty()) {
+            log.warn("Crawl is incomplete, keeping {} stocks it did not see", diff.removed().size());
+            diff = new SnapshotDiff(diff.generation(), diff.added(), diff.changed(), List.of());
+        }
+        if (diff.isEmpty()) {
+            log.info("No stock changed since the last run");
+            return diff;
+        }
+
+        long failed = sink.failed();
+        diff.added().keySet().forEach(id -> sink.publish(new StockChange(id, StockChange.Type.ADDED, json(byId.get(id)))));
+        diff.changed().keySet().forEach(id -> sink.publish(new StockChange(id, StockChange.Type.CHANGED, json(byId.get(id)))));
+        diff.removed().forEach(id -> sink.publish(new StockChange(id, StockChange.Type.REMOVED, null)));
+        if (!written(failed)) {
+            log.error("Stock changes were not written, the next run publishes them again");
+            return diff;
+        }
+        snapshot().apply(diff);
+        log.info("Published {} added, {} changed and {} removed stocks", diff.added().size(), diff.changed().size(),
+              diff.removed().size());
+        return diff;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    private boolean written(long failedBefore) {
+        try {
+            sink.flush().get(settings.publishTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+        return sink.failed() == failedBefore;
+    }
+
+    // opened by the first run, not with the context
+    private SnapshotFile snapshot() {
+        if (snapshot == null) {
+            snapshot = new SnapshotFile(settings.path(), settings.initialCapacity());
+        }
+        return snapshot;
+    }
+
+    private String json(Stock stock) {
+        try {
+            return writer.writeValueAsString(stock);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize stock " + stock.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.dataprovider.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingSinkTests {
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void flushWaitsForEarlierBatches() throws Exception {
+        BatchingSink<String> sink = new BatchingSink<>("flush-test", new IngestSettings(2, Duration.ofMinutes(1), 10),
+              batch -> {
+              });
+        sink.publish("a");
+        sink.publish("b");
+        sink.publish("c");
+        sink.flush().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, sink.written());
+        assertEquals(2, sink.batches());
+        sink.close();
+    }
+
+    @Test
+    void interruptedWriterFailsWhatIsQueued() throws Exception {
+        BatchingSink<String> sink = new BatchingSink<>("interrupt-test", new IngestSettings(1, Duration.ofMinutes(1), 10),
+              this::blockingWrite);
+        sink.publish("a");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        sink.publish("b");
+        CompletableFuture<Void> flush = sink.flush();
+
+        sinkThread("interrupt-test").interrupt();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> flush.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, sink.written());
+        assertEquals(1, sink.failed());
+        assertThrows(IllegalStateException.class, () -> sink.publish("c"));
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(sink::close);
+        closed.get(5, TimeUnit.SECONDS);
+        assertTrue(sink.flush().isCompletedExceptionally());
+    }
+
+    // returns with the interrupt flag set, so the writer sees it at its next poll
+    private void blockingWrite(List<String> batch) {
+        writing.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread sinkThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+              .filter(thread -> thread.getName().equals(name + "-sink"))
+              .findFirst()
+              .orElseThrow();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.dataprovider.ingest;
+
+import org.example.dataprovider.repository.FilmRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of films written one transaction each against the batches of
+ * the sink, both through the same writer. Run with {@code -Dloadtest=true}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ingestload")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class FilmIngestLoadTests {
+
+    private static final int FILMS = 20_000;
+    private static final int GENRES = 15;
+
+    @Autowired
+    private BatchingSink<FilmRecord> filmSink;
+    @Autowired
+    private FilmWriter filmWriter;
+    @Autowired
+    private FilmRepository filmRepository;
+
+    @Test
+    void batchedThroughput() throws Exception {
+        long films = filmRepository.count();
+        // warm up both paths
+        write("Warm single ", FILMS / 10, this::single);
+        write("Warm batched ", FILMS / 10, this::batched);
+
+        double single = write("Single ", FILMS, this::single);
+        double batched = write("Batched ", FILMS, this::batched);
+
+        System.out.printf("Ingest of %d films: one by one %.0f/s, batched %.0f/s, %.1fx%n",
+              FILMS, single, batched, batched / single);
+        assertEquals(films + 2L * (FILMS + FILMS / 10), filmRepository.count());
+        assertEquals(0, filmSink.failed());
+        assertTrue(batched > 2 * single);
+    }
+
+    private void single(String name, int i) {
+        filmWriter.write(List.of(new FilmRecord(name, "Load genre " + i % GENRES)));
+    }
+
+    private void batched(String name, int i) {
+        filmSink.publish(new FilmRecord(name, "Load genre " + i % GENRES));
+    }
+
+    /**
+     * @return films per second, until the last one is written
+     */
+    private double write(String prefix, int count, FilmSink sink) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sink.accept(prefix + i, i);
+        }
+        filmSink.flush().get(5, TimeUnit.MINUTES);
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface FilmSink {
+        void accept(String name, int i);
+    }
+}
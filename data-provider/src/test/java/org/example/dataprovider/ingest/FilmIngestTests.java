@@ -0,0 +1,59 @@
+package org.example.dataprovider.ingest;
+
+import org.example.dataprovider.entity.Film;
+import org.example.dataprovider.entity.Genre;
+import org.example.dataprovider.repository.FilmRepository;
+import org.example.dataprovider.repository.GenreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class FilmIngestTests {
+
+    @Autowired
+    private BatchingSink<FilmRecord> filmSink;
+    @Autowired
+    private FilmRepository filmRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Test
+    void insertsInBatchesAndUpsertsByName() throws Exception {
+        long films = filmRepository.count();
+        long batches = filmSink.batches();
+
+        for (int i = 0; i < 500; i++) {
+            filmSink.publish(new FilmRecord("Ingested " + i, "Ingest genre " + i % 5));
+        }
+        filmSink.flush().get(30, TimeUnit.SECONDS);
+
+        assertEquals(films + 500, filmRepository.count());
+        assertEquals(5, genreRepository.findAllByNameIn(List.of("Ingest genre 0", "Ingest genre 1", "Ingest genre 2",
+              "Ingest genre 3", "Ingest genre 4")).size());
+        // 200, 200 and the rest on flush
+        assertEquals(3, filmSink.batches() - batches);
+
+        filmSink.publish(new FilmRecord("Ingested 7", "Ingest genre moved"));
+        filmSink.publish(new FilmRecord("Ingested 8", null));
+        filmSink.flush().get(30, TimeUnit.SECONDS);
+
+        assertEquals(films + 500, filmRepository.count());
+        Map<String, Long> genres = genreRepository.findAllByNameIn(List.of("Ingest genre moved", "Ingest genre 3"))
+              .stream().collect(Collectors.toMap(Genre::getName, Genre::getId));
+        List<Film> updated = filmRepository.findAllByNameIn(List.of("Ingested 7", "Ingested 8"));
+        for (Film film : updated) {
+            String expected = film.getName().equals("Ingested 7") ? "Ingest genre moved" : "Ingest genre 3";
+            // the genre is a lazy reference outside of a transaction
+            assertEquals(genres.get(expected), film.getGenre().getId());
+        }
+        assertEquals(0, filmSink.failed());
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.dataprovider.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.loader.metrics.LoaderMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicrometerMetricsExporterTests {
+
+    @Test
+    void publishesLoaderMetricsUntilUnbound() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsExporter exporter = new MicrometerMetricsExporter(registry);
+        LoaderMetrics metrics = new LoaderMetrics("films");
+
+        exporter.bind(metrics);
+        metrics.onRequest(0L);
+        metrics.onResponse("example.org", 200, TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.onRequest(0L);
+        metrics.onResponse("example.org", 503, TimeUnit.MILLISECONDS.toNanos(10));
+        exporter.export(metrics);
+
+        assertEquals(2.0, registry.get("crawler.requests").tag("loader", "films").functionCounter().count());
+        assertEquals(1.0, registry.get("crawler.responses").tag("status", "503").functionCounter().count());
+        FunctionCounter hostErrors = registry.get("crawler.host.errors").tag("host", "example.org").functionCounter();
+        assertEquals(1.0, hostErrors.count());
+        FunctionTimer total = registry.get("crawler.latency").tag("phase", "total").functionTimer();
+        assertEquals(2.0, total.count());
+        assertTrue(total.totalTime(TimeUnit.MILLISECONDS) >= 50.0);
+
+        exporter.unbind(metrics);
+        assertNull(registry.find("crawler.requests").functionCounter());
+    }
+}
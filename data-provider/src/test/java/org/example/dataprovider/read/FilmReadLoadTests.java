@@ -0,0 +1,75 @@
+package org.example.dataprovider.read;
+
+import org.example.dataprovider.repository.FilmRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of deep pages over a million films, keyset against the offset
+ * pages of the repository. Run with {@code -Dloadtest=true}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:loadtest")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class FilmReadLoadTests {
+
+    private static final int FILMS = 1_000_000;
+    private static final int FIRST_ID = 1_000;
+    private static final int PAGE = 50;
+    private static final int SAMPLES = 200;
+
+    @Autowired
+    private FilmRepository filmRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void deepPages() {
+        jdbc.update("insert into film (id, name, genere_id) "
+              + "select x, concat('Load film ', x), (select min(id) from genre) + mod(x, 15) "
+              + "from system_range(?, ?)", FIRST_ID, FIRST_ID + FILMS - 1);
+        Random random = new Random(42);
+
+        long[] keyset = measure(depth -> assertEquals(PAGE,
+              filmRepository.findPageAfter(FIRST_ID + depth, Limit.of(PAGE)).size()), random);
+        long[] offset = measure(depth -> assertEquals(PAGE,
+              filmRepository.findAll(PageRequest.of(depth / PAGE, PAGE, Sort.by("id"))).getNumberOfElements()), random);
+
+        System.out.printf("Deep pages over %d films: keyset p50=%.2fms p99=%.2fms, offset p50=%.2fms p99=%.2fms%n",
+              FILMS, percentile(keyset, 50) / 1e6, percentile(keyset, 99) / 1e6,
+              percentile(offset, 50) / 1e6, percentile(offset, 99) / 1e6);
+        assertTrue(percentile(keyset, 99) < percentile(offset, 99));
+    }
+
+    // pages in the last tenth of the table, after a warm up
+    private static long[] measure(IntConsumer page, Random random) {
+        for (int i = 0; i < SAMPLES / 4; i++) {
+            page.accept(FILMS - FILMS / 10 + random.nextInt(FILMS / 10 - PAGE * 2));
+        }
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int depth = FILMS - FILMS / 10 + random.nextInt(FILMS / 10 - PAGE * 2);
+            long start = System.nanoTime();
+            page.accept(depth);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
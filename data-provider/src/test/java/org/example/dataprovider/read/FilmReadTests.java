@@ -0,0 +1,107 @@
+package org.example.dataprovider.read;
+
+import org.example.dataprovider.entity.Film;
+import org.example.dataprovider.entity.Genre;
+import org.example.dataprovider.ingest.BatchingSink;
+import org.example.dataprovider.ingest.FilmRecord;
+import org.example.dataprovider.repository.FilmRepository;
+import org.example.dataprovider.repository.GenreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class FilmReadTests {
+
+    @Autowired
+    private FilmReadController controller;
+    @Autowired
+    private FilmReadCache cache;
+    @Autowired
+    private BatchingSink<FilmRecord> filmSink;
+    @Autowired
+    private FilmRepository filmRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Test
+    void pagesFilmsOfGenreByKeyset() {
+        Genre genre = genre("Keyset genre");
+        List<Long> ids = films(genre, "Keyset film ", 5);
+
+        KeysetPage<FilmView> first = controller.genreFilms(genre.getId(), 0, 2, null).getBody();
+        assertEquals(ids.subList(0, 2), first.items().stream().map(FilmView::id).toList());
+        assertEquals("Keyset genre", first.items().get(0).genreName());
+        KeysetPage<FilmView> second = controller.genreFilms(genre.getId(), first.next(), 2, null).getBody();
+        assertEquals(ids.subList(2, 4), second.items().stream().map(FilmView::id).toList());
+        KeysetPage<FilmView> last = controller.genreFilms(genre.getId(), second.next(), 2, null).getBody();
+        assertEquals(ids.subList(4, 5), last.items().stream().map(FilmView::id).toList());
+        assertNull(last.next());
+
+        KeysetPage<FilmView> all = controller.films(ids.get(2), 500, null).getBody();
+        assertEquals(ids.subList(3, 5), all.items().stream().map(FilmView::id).filter(ids::contains).toList());
+
+        GenreView view = controller.genre(genre.getId(), null).getBody();
+        assertEquals(5, view.films().size());
+        assertEquals(genre.getId(), view.films().get(0).genreId());
+    }
+
+    @Test
+    void servesFromCacheUntilIngestChangesIt() throws Exception {
+        Genre changed = genre("Cached genre");
+        Genre other = genre("Other cached genre");
+        Long firstFilm = films(changed, "Cached film ", 3).get(0);
+        films(other, "Other cached film ", 3);
+
+        ResponseEntity<KeysetPage<FilmView>> page = controller.genreFilms(changed.getId(), 0, 2, null);
+        String etag = page.getHeaders().getETag();
+        String otherEtag = controller.genreFilms(other.getId(), 0, 50, null).getHeaders().getETag();
+        String filmEtag = controller.film(firstFilm, null).getHeaders().getETag();
+        long hits = cache.caches().stream().mapToLong(ReadCache::hits).sum();
+
+        assertEquals(etag, controller.genreFilms(changed.getId(), 0, 2, null).getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.genreFilms(changed.getId(), 0, 2, etag).getStatusCode());
+        assertEquals(hits + 2, cache.caches().stream().mapToLong(ReadCache::hits).sum());
+
+        // a film added behind the first page of the genre leaves that page as it is
+        filmSink.publish(new FilmRecord("Cached film new", "Cached genre"));
+        filmSink.flush().get(30, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.genreFilms(changed.getId(), 0, 2, etag).getStatusCode());
+        ResponseEntity<KeysetPage<FilmView>> lastPage = controller.genreFilms(changed.getId(), 0, 50, null);
+        assertEquals(4, lastPage.getBody().items().size());
+
+        // moving a film invalidates the pages of both genres and the film
+        filmSink.publish(new FilmRecord("Cached film 0", "Other cached genre"));
+        filmSink.flush().get(30, TimeUnit.SECONDS);
+        ResponseEntity<KeysetPage<FilmView>> moved = controller.genreFilms(changed.getId(), 0, 2, etag);
+        assertEquals(HttpStatus.OK, moved.getStatusCode());
+        assertNotEquals(firstFilm, moved.getBody().items().get(0).id());
+        assertEquals(HttpStatus.OK, controller.genreFilms(other.getId(), 0, 50, otherEtag).getStatusCode());
+        assertEquals(other.getId(), controller.film(firstFilm, filmEtag).getBody().genreId());
+        assertEquals(4, controller.genre(other.getId(), null).getBody().films().size());
+    }
+
+    private Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        return genreRepository.save(genre);
+    }
+
+    private List<Long> films(Genre genre, String prefix, int count) {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            films.add(new Film(null, prefix + i, genre));
+        }
+        return filmRepository.saveAll(films).stream().map(Film::getId).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.dataprovider.read;
+
+import org.example.util.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Loaders that invalidate while they run stand for an invalidation that
+ * overlaps the load.
+ */
+class ReadCacheTests {
+
+    private final ReadCache<String, String> cache =
+          new ReadCache<>("test", 100, TimeUnit.MINUTES.toNanos(1), HashUtils::hash64);
+
+    @Test
+    void sameContentKeepsTag() {
+        String tag = cache.get("a", () -> "Alien").etag();
+        cache.invalidate("a");
+
+        assertEquals(tag, cache.get("a", () -> "Alien").etag());
+        assertEquals(tag, cache.get("b", () -> "Alien").etag());
+        cache.invalidate("a");
+        assertNotEquals(tag, cache.get("a", () -> "Aliens").etag());
+    }
+
+    @Test
+    void invalidationOfOtherKeyKeepsLoad() {
+        cache.get("a", () -> {
+            cache.invalidate("b");
+            return "Alien";
+        });
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void invalidationOfSameKeyDropsLoad() {
+        Cached<String> loaded = cache.get("a", () -> {
+            cache.invalidate("a");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded.value());
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get("a", () -> "fresh").value());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void predicateOnlyDropsLoadsItMatches() {
+        cache.get("a", () -> {
+            cache.invalidateIf((key, value) -> value.startsWith("B"));
+            return "Alien";
+        });
+        cache.get("b", () -> {
+            cache.invalidateIf((key, value) -> value.startsWith("B"));
+            return "Blade Runner";
+        });
+
+        assertEquals(1, cache.size());
+        assertEquals("Alien", cache.get("a", () -> "reloaded").value());
+    }
+
+    @Test
+    void invalidateAllDropsLoadsInFlight() {
+        cache.get("a", () -> {
+            cache.invalidateAll();
+            return "Alien";
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidationIsForgottenOnceLoadsAreDone() {
+        cache.get("a", () -> {
+            cache.invalidate("b");
+            return "Alien";
+        });
+        cache.get("b", () -> "Blade Runner");
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void failedLoadKeepsNothing() {
+        assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(0, cache.size());
+        cache.get("a", () -> "Alien");
+        assertEquals(1, cache.size());
+    }
+}
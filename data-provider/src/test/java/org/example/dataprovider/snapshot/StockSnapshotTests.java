@@ -0,0 +1,139 @@
+package org.example.dataprovider.snapshot;
+
+import org.example.dataprovider.crawler.Stock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockSnapshotTests {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private StockPublisher publisher;
+    @Autowired
+    private MockMvc mvc;
+
+    @DynamicPropertySource
+    static void snapshot(DynamicPropertyRegistry registry) {
+        registry.add("snapshot.path", () -> directory.resolve("stocks.snapshot").toString());
+        registry.add("snapshot.page-size", () -> "2");
+    }
+
+    @Test
+    void countsComeFromSlotsAfterCrash(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("table");
+        Map<String, Long> hashes = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            hashes.put("S" + i, (long) i);
+        }
+        try (SnapshotFile snapshot = new SnapshotFile(path, 16)) {
+            snapshot.apply(snapshot.diff(hashes));
+            hashes.remove("S0");
+            snapshot.apply(snapshot.diff(hashes));
+        }
+        // a header that was not written back, live and deleted at offsets 8 and 12
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(3).putInt(0).flip(), 8);
+        }
+
+        try (SnapshotFile snapshot = new SnapshotFile(path, 16)) {
+            assertEquals(9, snapshot.size());
+            hashes.remove("S1");
+            SnapshotDiff diff = snapshot.diff(hashes);
+            assertEquals(List.of("S1"), diff.removed());
+            snapshot.apply(diff);
+            assertEquals(8, snapshot.size());
+        }
+    }
+
+    @Test
+    void diffsSurviveResizeAndReopen(@TempDir Path dir) {
+        Path path = dir.resolve("table");
+        Map<String, Long> hashes = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            hashes.put("S" + i, (long) i);
+        }
+        try (SnapshotFile snapshot = new SnapshotFile(path, 16)) {
+            snapshot.apply(snapshot.diff(hashes));
+        }
+
+        hashes.put("S1", -1L);
+        hashes.remove("S2");
+        hashes.put("S1000", 1000L);
+        try (SnapshotFile snapshot = new SnapshotFile(path, 16)) {
+            assertEquals(1000, snapshot.size());
+            SnapshotDiff diff = snapshot.diff(hashes);
+            assertEquals(Map.of("S1000", 1000L), diff.added());
+            assertEquals(Map.of("S1", -1L), diff.changed());
+            assertEquals(List.of("S2"), diff.removed());
+            snapshot.apply(diff);
+            assertTrue(snapshot.diff(hashes).isEmpty());
+        }
+    }
+
+    @Test
+    void publishesOnlyChangesAndStreamsThem() throws Exception {
+        assertEquals(3, publisher.publish(List.of(stock("A", 1), stock("B", 2), stock("C", 3)), true).size());
+        long version = lastVersion(0);
+
+        assertTrue(publisher.publish(List.of(stock("A", 1), stock("B", 2), stock("C", 3)), true).isEmpty());
+        // stocks missing from an incomplete crawl are kept
+        assertEquals(1, publisher.publish(List.of(stock("A", 1), stock("B", 5)), false).size());
+        assertEquals(1, publisher.publish(List.of(stock("A", 1), stock("B", 5)), true).size());
+
+        String[] lines = stream(version).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"stockId\":\"B\",\"type\":\"CHANGED\",\"stock\":{\"id\":\"B\",\"price\":5}"), lines[0]);
+        assertTrue(lines[1].contains("\"stockId\":\"C\",\"type\":\"REMOVED\",\"stock\":null"), lines[1]);
+    }
+
+    private long lastVersion(long since) throws Exception {
+        String[] lines = stream(since).split("\n");
+        assertEquals(3, lines.length);
+        String last = lines[lines.length - 1];
+        return Long.parseLong(last.substring("{\"version\":".length(), last.indexOf(',')));
+    }
+
+    private String stream(long since) throws Exception {
+        MvcResult result = mvc.perform(get("/stocks/changes").param("since", String.valueOf(since)))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+        return mvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+    }
+
+    private static Stock stock(String id, int price) {
+        PricedStock stock = new PricedStock();
+        stock.setId(id);
+        stock.price = price;
+        return stock;
+    }
+
+    static class PricedStock extends Stock {
+        public int price;
+    }
+}